@@ -0,0 +1,66 @@
+package com.lowdragmc.multiblocked;
+
+import com.lowdragmc.multiblocked.api.pattern.BlockPattern;
+import net.minecraftforge.common.ForgeConfigSpec;
+
+/**
+ * Common config of Multiblocked, file: config/multiblocked-common.toml
+ */
+public class MbdConfig {
+    public static final ForgeConfigSpec SPEC;
+    public static final ForgeConfigSpec.IntValue ASYNC_THREADS;
+    public static final ForgeConfigSpec.IntValue RECIPE_SEARCH_CACHE;
+    public static final ForgeConfigSpec.IntValue PATTERN_PROBE_CELLS;
+    public static final ForgeConfigSpec.IntValue UPDATE_BUDGET;
+    public static final ForgeConfigSpec.IntValue GEO_ANIMATION_DISTANCE;
+
+    static {
+        ForgeConfigSpec.Builder builder = new ForgeConfigSpec.Builder();
+
+        builder.comment("Async thread searching structures and proxy changes.").push("async");
+        ASYNC_THREADS = builder
+                .comment("Worker threads of each world. Controllers are partitioned by chunk region among them.",
+                        "0 - auto, half of the available processors (at most 4).")
+                .defineInRange("threads", 0, 0, 64);
+        builder.pop();
+
+        builder.comment("Recipe searching.").push("recipe");
+        RECIPE_SEARCH_CACHE = builder
+                .comment("Size of the search result cache of each recipe map, keyed by the input contents of controllers.",
+                        "0 - disabled.")
+                .defineInRange("searchCacheSize", 256, 0, 65536);
+        builder.pop();
+
+        builder.comment("Structure checking.").push("pattern");
+        PATTERN_PROBE_CELLS = builder
+                .comment("Number of cells near the controller tested before the full scan, they reject most unformed structures in a few reads.",
+                        "0 - disabled.")
+                .defineInRange("probeCells", 8, 0, BlockPattern.MAX_PROBE_CELLS);
+        builder.pop();
+
+        builder.comment("Component updating.").push("update");
+        UPDATE_BUDGET = builder
+                .comment("Milliseconds per tick of each world for updating components. Working controllers and components which need every tick are always updated,",
+                        "the others (e.g. unformed or idle controllers) are updated in turn with the rest of the budget.",
+                        "0 - unlimited.")
+                .defineInRange("tickBudget", 10, 0, 1000);
+        builder.pop();
+
+        builder.comment("Client rendering.").push("render");
+        GEO_ANIMATION_DISTANCE = builder
+                .comment("Distance in blocks beyond which geo models stop animating, they keep the last pose of their status.",
+                        "0 - unlimited.")
+                .defineInRange("geoAnimationDistance", 48, 0, 1024);
+        builder.pop();
+
+        SPEC = builder.build();
+    }
+
+    public static int getAsyncThreads() {
+        int threads = ASYNC_THREADS.get();
+        if (threads <= 0) {
+            threads = Math.min(4, Runtime.getRuntime().availableProcessors() / 2);
+        }
+        return Math.max(1, threads);
+    }
+}
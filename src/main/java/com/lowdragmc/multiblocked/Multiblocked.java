@@ -22,7 +22,9 @@ import net.minecraftforge.api.distmarker.OnlyIn;
 import net.minecraftforge.fluids.FluidStack;
 import net.minecraftforge.fml.DistExecutor;
 import net.minecraftforge.fml.ModList;
+import net.minecraftforge.fml.ModLoadingContext;
 import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.config.ModConfig;
 import net.minecraftforge.fml.loading.FMLEnvironment;
 import net.minecraftforge.fml.loading.FMLPaths;
 import org.apache.logging.log4j.LogManager;
@@ -65,6 +67,7 @@ public class Multiblocked {
     public Multiblocked() {
         location = new File(FMLPaths.GAMEDIR.get().toFile(), "multiblocked");
         location.mkdir();
+        ModLoadingContext.get().registerConfig(ModConfig.Type.COMMON, MbdConfig.SPEC);
         DistExecutor.unsafeRunForDist(() -> ClientProxy::new, () -> CommonProxy::new);
     }
 
@@ -0,0 +1,22 @@
+package com.lowdragmc.multiblocked.api.capability;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Handlers which notify their content changes by a version, so that proxies don't need to snapshot the contents to detect changes.
+ */
+public interface IVersionedContent {
+    AtomicLong VERSIONS = new AtomicLong();
+
+    /**
+     * A new version, unique among all handlers. So versions of different handlers never collide.
+     */
+    static long nextVersion() {
+        return VERSIONS.incrementAndGet();
+    }
+
+    /**
+     * @return the version of the contents. it changes whenever the contents have been changed.
+     */
+    long getContentVersion();
+}
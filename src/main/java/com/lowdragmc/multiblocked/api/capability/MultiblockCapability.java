@@ -20,6 +20,8 @@ import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.common.capabilities.Capability;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
@@ -55,7 +57,37 @@ public abstract class MultiblockCapability<T> implements JsonSerializer<T>, Json
      * deep copy of this content. recipe need it for searching and such things
      */
     public abstract T copyInner(T content);
+
+    /**
+     * reuse a copy made by {@link #copyInner(Object)}, reset it to the given content. recipe searching pools copies with it.
+     *
+     * @return the reset copy, or a new copy if it can't be reused.
+     */
+    public T resetCopy(T copy, T content) {
+        return copyInner(content);
+    }
+
+    /**
+     * a copy of this content with its amount multiplied, used by parallel recipes.
+     *
+     * @return null if this content can't be multiplied, e.g. the amount would overflow.
+     */
+    @Nullable
+    public T copyWithModifier(T content, int multiplier) {
+        return null;
+    }
     
+    /**
+     * keys of this content used by the recipe lookup index of {@link com.lowdragmc.multiblocked.api.recipe.RecipeMap}, such as the item or the fluid.
+     * they should be consistent with {@link CapabilityProxy#collectLookupKeys(Collection)}.
+     *
+     * @return null if this content can't be indexed.
+     */
+    @Nullable
+    public Collection<?> getLookupKeys(T content) {
+        return null;
+    }
+
     /**
      * create a proxy of this block.
      */
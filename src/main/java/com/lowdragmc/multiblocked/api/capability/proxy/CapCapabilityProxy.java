@@ -1,30 +1,65 @@
 package com.lowdragmc.multiblocked.api.capability.proxy;
 
+import com.lowdragmc.multiblocked.api.capability.IInnerCapabilityProvider;
 import com.lowdragmc.multiblocked.api.capability.MultiblockCapability;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraftforge.common.capabilities.Capability;
+import net.minecraftforge.common.util.LazyOptional;
 
 import javax.annotation.Nullable;
-import java.util.Objects;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The Proxy of a Capability {@link Capability}
+ * <br>
+ * Resolved capabilities are cached per slot name, until the {@link LazyOptional} is invalidated or the tile entity is replaced.
+ * Absent capabilities are not cached, they may appear later (e.g. side configuration changed).
  */
 public abstract class CapCapabilityProxy<C, K> extends CapabilityProxy<K>{
     public final Capability<? extends C> CAP;
+    private final Map<String, Object> slotCache = new ConcurrentHashMap<>();
+    private volatile Object cache;
+    private volatile TileEntity cachedTile;
 
     public CapCapabilityProxy(MultiblockCapability<? super K> capability, TileEntity tileEntity, Capability<? extends C> cap) {
         super(capability, tileEntity);
         CAP = cap;
     }
 
+    @SuppressWarnings("unchecked")
     public C getCapability(@Nullable String slotName) {
-        return super.getCapability(CAP, slotName);
+        TileEntity tileEntity = getTileEntity();
+        if (tileEntity != cachedTile) {
+            invalidateCache();
+            cachedTile = tileEntity;
+        }
+        if (tileEntity == null) return null;
+        Object result = slotName == null ? cache : slotCache.get(slotName);
+        if (result == null) {
+            result = resolve(tileEntity, CAP, slotName);
+            if (result == null) return null;
+            if (slotName == null) {
+                cache = result;
+            } else {
+                slotCache.put(slotName, result);
+            }
+        }
+        return (C) result;
     }
 
+    public void invalidateCache() {
+        cache = null;
+        slotCache.clear();
+    }
 
-    @Override
-    public boolean equals(Object obj) {
-        return obj instanceof CapCapabilityProxy && Objects.equals(getCapability(null), ((CapCapabilityProxy<?, ?>) obj).getCapability(null));
+    @Nullable
+    private <T> Object resolve(TileEntity tileEntity, Capability<T> capability, @Nullable String slotName) {
+        LazyOptional<T> optional = tileEntity instanceof IInnerCapabilityProvider ?
+                ((IInnerCapabilityProvider) tileEntity).getInnerCapability(capability, facing, slotName) :
+                tileEntity.getCapability(capability, facing);
+        if (optional == null || !optional.isPresent()) return null;
+        optional.addListener(invalid -> invalidateCache());
+        return optional.orElse(null);
     }
 }
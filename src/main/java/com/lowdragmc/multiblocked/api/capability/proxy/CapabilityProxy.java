@@ -5,16 +5,20 @@ import com.lowdragmc.multiblocked.api.capability.ICapabilityProxyHolder;
 import com.lowdragmc.multiblocked.api.capability.IInnerCapabilityProvider;
 import com.lowdragmc.multiblocked.api.capability.IO;
 import com.lowdragmc.multiblocked.api.capability.MultiblockCapability;
+import com.lowdragmc.multiblocked.api.recipe.ContentFingerprint;
 import com.lowdragmc.multiblocked.api.recipe.Recipe;
+import com.lowdragmc.multiblocked.api.recipe.RecipeSearchCache;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.Direction;
+import net.minecraft.util.math.BlockPos;
 import net.minecraftforge.common.capabilities.Capability;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * The Proxy of a specific capability that has been detected {@link MultiblockCapability}. Providing I/O and such features to a controller.
@@ -48,11 +52,25 @@ public abstract class CapabilityProxy<K> {
         return latestPeriodID;
     }
 
+    /**
+     * Proxies are equal if they are of the same capability and at the same position. It doesn't resolve anything from the tile.
+     */
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
         if (!(obj instanceof CapabilityProxy<?>)) return false;
-        return Objects.equals(getTileEntity(), ((CapabilityProxy<?>) obj).getTileEntity());
+        CapabilityProxy<?> proxy = (CapabilityProxy<?>) obj;
+        return capability == proxy.capability && Objects.equals(getPos(), proxy.getPos());
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * capability.hashCode() + Objects.hashCode(getPos());
+    }
+
+    @Nullable
+    private BlockPos getPos() {
+        return tileEntity == null ? null : tileEntity.getBlockPos();
     }
 
     /**
@@ -79,17 +97,53 @@ public abstract class CapabilityProxy<K> {
         return true;
     }
 
+    /**
+     * Collect lookup keys of all contents held by this proxy. see {@link MultiblockCapability#getLookupKeys(Object)}.
+     *
+     * @param keys collector.
+     * @return false - contents can't be enumerated, all recipes of this capability will be searched.
+     */
+    public boolean collectLookupKeys(Collection<Object> keys) {
+        return false;
+    }
+
+    /**
+     * Put all contents held by this proxy into the fingerprint, including amounts. see {@link RecipeSearchCache}.
+     *
+     * @param fingerprint fingerprint.
+     * @return false - contents can't be fingerprinted, the capability is left out of the recipe searching cache key.
+     */
+    public boolean collectFingerprint(ContentFingerprint fingerprint) {
+        return false;
+    }
+
     @SuppressWarnings("unchecked")
     public final K copyContent(Object content) {
         return (K) capability.copyInner((K)content);
     }
 
     public final List<K> searchingRecipe(IO io, Recipe recipe, List<?> left, @Nullable String slotName) {
-        return handleRecipeInner(io, recipe, left.stream().map(this::copyContent).collect(Collectors.toList()), slotName, true);
+        return handleRecipeInner(io, recipe, copyContents(left), slotName, true);
     }
 
     public final List<K> handleRecipe(IO io, Recipe recipe, List<?> left, @Nullable String slotName) {
-        return handleRecipeInner(io, recipe, left.stream().map(this::copyContent).collect(Collectors.toList()), slotName, false);
+        return handleRecipeInner(io, recipe, copyContents(left), slotName, false);
+    }
+
+    /**
+     * matching or handling the given recipe with contents already copied by the caller. the list and its contents will be modified.
+     */
+    @SuppressWarnings("unchecked")
+    public final List<K> handleRecipeInPlace(IO io, Recipe recipe, List<?> left, @Nullable String slotName, boolean simulate) {
+        return handleRecipeInner(io, recipe, (List<K>) left, slotName, simulate);
+    }
+
+    private List<K> copyContents(List<?> contents) {
+        List<K> copied = new ArrayList<>(contents.size());
+        for (Object content : contents) {
+            copied.add(copyContent(content));
+        }
+        return copied;
     }
 
     public final void updateChangedState(long periodID) {
@@ -8,17 +8,17 @@ import com.lowdragmc.multiblocked.Multiblocked;
 import com.lowdragmc.multiblocked.api.pattern.BlockPattern;
 import com.lowdragmc.multiblocked.api.pattern.JsonBlockPattern;
 import com.lowdragmc.multiblocked.api.pattern.MultiblockShapeInfo;
+import com.lowdragmc.multiblocked.api.pattern.PatternDesigns;
 import com.lowdragmc.multiblocked.api.recipe.RecipeMap;
 import com.lowdragmc.multiblocked.api.tile.ControllerTileEntity;
 import net.minecraft.item.ItemStack;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.JSONUtils;
 import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.math.MathHelper;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Stack;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -27,12 +27,16 @@ import java.util.function.Supplier;
  * Definition of a controller, which define its structure, logic, recipe chain and so on.
  */
 public class ControllerDefinition extends ComponentDefinition {
+    public static final int MAX_PARALLEL = 1024;
     protected Supplier<BlockPattern> basePattern;
     protected Supplier<RecipeMap> recipeMap;
     protected Supplier<ItemStack> catalyst; // if null, checking pattern per second
     public CatalystState consumeCatalyst;
     public boolean noNeedController;
+    public int maxSearchBackoff; // idle controllers retry recipe searching every 5 << backoff ticks at most.
+    public int maxParallel; // recipes running at once per cycle, at most MAX_PARALLEL.
     public List<MultiblockShapeInfo> designs; // TODO
+    private transient PatternDesigns autoDesigns; // generated from the base pattern if no designs
 
     // used for Gson
     public ControllerDefinition() {
@@ -46,34 +50,23 @@ public class ControllerDefinition extends ComponentDefinition {
     public ControllerDefinition(ResourceLocation location, Function<ControllerDefinition, TileEntity> teSupplier) {
         super(location, d -> teSupplier.apply((ControllerDefinition) d));
         this.consumeCatalyst = CatalystState.NOT_CONSUMED;
+        this.maxSearchBackoff = 4;
+        this.maxParallel = 1;
         this.recipeMap = () -> RecipeMap.EMPTY;
     }
 
     public List<MultiblockShapeInfo> getDesigns() {
         if (designs != null) return designs;
         // auto gen
-        if (getBasePattern() != null) {
-            return autoGenDFS(getBasePattern(), new ArrayList<>(), new Stack<>());
-        }
-        return Collections.emptyList();
-    }
-
-    private List<MultiblockShapeInfo> autoGenDFS(BlockPattern structurePattern, List<MultiblockShapeInfo> pages, Stack<Integer> repetitionStack) {
-        int[][] aisleRepetitions = structurePattern.aisleRepetitions;
-        if (repetitionStack.size() == aisleRepetitions.length) {
-            int[] repetition = new int[repetitionStack.size()];
-            for (int i = 0; i < repetitionStack.size(); i++) {
-                repetition[i] = repetitionStack.get(i);
-            }
-            pages.add(new MultiblockShapeInfo(structurePattern.getPreview(repetition)));
-        } else {
-            for (int i = aisleRepetitions[repetitionStack.size()][0]; i <= aisleRepetitions[repetitionStack.size()][1]; i++) {
-                repetitionStack.push(i);
-                autoGenDFS(structurePattern, pages, repetitionStack);
-                repetitionStack.pop();
+        BlockPattern pattern = getBasePattern();
+        if (pattern != null) {
+            PatternDesigns autoDesigns = this.autoDesigns;
+            if (autoDesigns == null || autoDesigns.pattern != pattern) {
+                this.autoDesigns = autoDesigns = new PatternDesigns(pattern);
             }
+            return autoDesigns;
         }
-        return pages;
+        return Collections.emptyList();
     }
 
     public String getDescription() {
@@ -138,6 +131,8 @@ public class ControllerDefinition extends ComponentDefinition {
         } else {
             setRecipeMap(RecipeMap.EMPTY);
         }
+        maxSearchBackoff = JSONUtils.getAsInt(json, "maxSearchBackoff", maxSearchBackoff);
+        maxParallel = MathHelper.clamp(JSONUtils.getAsInt(json, "maxParallel", maxParallel), 1, MAX_PARALLEL);
         if (json.has("catalyst")) {
             catalyst = Suppliers.memoize(()-> Multiblocked.GSON.fromJson(json.get("catalyst"), ItemStack.class));
             if (version > 1) {
@@ -155,6 +150,8 @@ public class ControllerDefinition extends ComponentDefinition {
         if (getRecipeMap() != null) {
             json.addProperty("recipeMap", getRecipeMap().name);
         }
+        json.addProperty("maxSearchBackoff", maxSearchBackoff);
+        json.addProperty("maxParallel", maxParallel);
         if (getCatalyst() != null) {
             json.add("catalyst", Multiblocked.GSON.toJsonTree(getCatalyst()));
             json.addProperty("consumeCatalyst", consumeCatalyst.name());
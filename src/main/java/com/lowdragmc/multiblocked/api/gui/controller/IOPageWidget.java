@@ -102,7 +102,7 @@ public class IOPageWidget extends PageWidget {
                 .setOnSelected(this::onPosSelected)
                 .setRenderFacing(false));
         if (isRemote()) {
-            sceneWidget.getRenderer().setBlocked(controller.state.getCache().stream().filter(pos -> MultiblockWorldSavedData.modelDisabled.contains(pos)).collect(Collectors.toSet()));
+            sceneWidget.getRenderer().setBlocked(controller.state.getCache().stream().filter(pos -> MultiblockWorldSavedData.modelDisabled.contains(pos.asLong())).collect(Collectors.toSet()));
         }
         addWidget(new ButtonWidget(4, 156, 5, 17, LEFT_BUTTON, this::onLeftClick).setHoverTexture(LEFT_BUTTON_HOVER));
         addWidget(new ButtonWidget(167, 156, 5, 17, RIGHT_BUTTON, this::onRightClick).setHoverTexture(RIGHT_BUTTON_HOVER));
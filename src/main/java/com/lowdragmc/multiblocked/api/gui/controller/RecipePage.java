@@ -32,7 +32,7 @@ public class RecipePage extends PageWidget{
     @OnlyIn(Dist.CLIENT)
     private RecipeWidget recipeWidget;
     private RecipeLogic.Status status;
-    private int progress, fuelTime, fuelMaxTime = 1;
+    private int progress, fuelTime, fuelMaxTime = 1, backoff;
     
     public RecipePage(ControllerTileEntity controller, TabContainer tabContainer) {
         super(resourceTexture, tabContainer);
@@ -41,6 +41,7 @@ public class RecipePage extends PageWidget{
         this.addWidget(tips = new DraggableScrollableWidgetGroup(8, 34, 160, 112));
         tips.addWidget(new LabelWidget(5, 5, () -> I18n.get("multiblocked.recipe.status." + status.name)).setTextColor(-1));
         tips.addWidget(new LabelWidget(5, 20, () -> I18n.get("multiblocked.recipe.remaining", recipe == null ? 0 : (recipe.duration - progress) / 20)).setTextColor(-1));
+        tips.addWidget(new LabelWidget(5, 50, () -> status == RecipeLogic.Status.WORKING || backoff == 0 ? "" : I18n.get("multiblocked.recipe.backoff", 5 << backoff)).setTextColor(-1));
         this.addWidget(new SwitchWidget(153, 131, 12, 12, (cd, r) -> {
             controller.asyncRecipeSearching = r;
             if (!cd.isRemote) {
@@ -143,8 +144,9 @@ public class RecipePage extends PageWidget{
                 recipe = recipeLogic.lastRecipe;
                 writeUpdateInfo(-1, this::writeRecipe);
             }
-            if (status != recipeLogic.getStatus() || progress != recipeLogic.progress || fuelTime != recipeLogic.fuelTime || fuelMaxTime != recipeLogic.fuelMaxTime) {
+            if (status != recipeLogic.getStatus() || progress != recipeLogic.progress || fuelTime != recipeLogic.fuelTime || fuelMaxTime != recipeLogic.fuelMaxTime || backoff != recipeLogic.getBackoff()) {
                 status = recipeLogic.getStatus();
+                backoff = recipeLogic.getBackoff();
                 progress = recipeLogic.progress;
                 fuelTime = recipeLogic.fuelTime;
                 fuelMaxTime = recipeLogic.fuelMaxTime;
@@ -161,6 +163,7 @@ public class RecipePage extends PageWidget{
         buffer.writeVarInt(progress);
         buffer.writeVarInt(fuelTime);
         buffer.writeVarInt(fuelMaxTime);
+        buffer.writeVarInt(backoff);
     }
 
     private void readStatus(PacketBuffer buffer) {
@@ -168,6 +171,7 @@ public class RecipePage extends PageWidget{
         progress = buffer.readVarInt();
         fuelTime = buffer.readVarInt();
         fuelMaxTime = buffer.readVarInt();
+        backoff = buffer.readVarInt();
     }
 
     private void writeRecipe(PacketBuffer buffer) {
@@ -48,13 +48,14 @@ import net.minecraftforge.items.IItemHandler;
 import net.minecraftforge.items.ItemStackHandler;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -79,8 +80,9 @@ public class PatternWidget extends WidgetGroup {
     private final ButtonWidget rightButton;
     private final SwitchWidget switchWidget;
     public final ControllerDefinition controllerDefinition;
-    public final MBPattern[] patterns;
     public final List<ItemStack> allItemStackInputs;
+    private final List<MultiblockShapeInfo> designs;
+    private final List<MBPattern> patterns; // built on demand, null - not built yet
     private final List<SimplePredicate> predicates;
     private int index;
     public int layer;
@@ -110,10 +112,9 @@ public class PatternWidget extends WidgetGroup {
 
         HashSet<ItemStackKey> drops = new HashSet<>();
         drops.add(new ItemStackKey(this.controllerDefinition.getStackForm()));
-        this.patterns = controllerDefinition.getDesigns().stream()
-                .map(it -> initializePattern(it, drops))
-                .filter(Objects::nonNull)
-                .toArray(MBPattern[]::new);
+        this.designs = new ArrayList<>(controllerDefinition.getDesigns());
+        this.patterns = new ArrayList<>(Collections.nCopies(designs.size(), null));
+        designs.forEach(design -> gatherDesignDrops(design, drops));
 
         drops.forEach(it -> {
             if (!it.getItemStack().isEmpty()) {
@@ -143,7 +144,7 @@ public class PatternWidget extends WidgetGroup {
     }
 
     private void updateLayer(int add) {
-        MBPattern pattern = patterns[index];
+        MBPattern pattern = patterns.get(index);
         if (layer + add >= -1 && layer + add <= pattern.maxY - pattern.minY) {
             if (pattern.controllerBase.isFormed()) {
                 onFormedSwitch(null, false);
@@ -178,11 +179,35 @@ public class PatternWidget extends WidgetGroup {
         return patternWidget;
     }
 
+    /**
+     * Patterns are built and checked when their page is shown first, designs without a controller are dropped then.
+     */
+    @Nullable
+    private MBPattern getPattern(int index) {
+        while (index >= 0 && index < designs.size()) {
+            MBPattern pattern = patterns.get(index);
+            if (pattern == null) {
+                pattern = initializePattern(designs.get(index));
+                if (pattern == null) {
+                    designs.remove(index);
+                    patterns.remove(index);
+                    continue;
+                }
+                patterns.set(index, pattern);
+            }
+            return pattern;
+        }
+        return null;
+    }
+
     private void reset(int index) {
-        if (index >= patterns.length || index < 0) return;
+        MBPattern pattern = getPattern(index);
+        if (pattern == null) {
+            rightButton.setVisible(this.index < designs.size() - 1);
+            return;
+        }
         this.index = index;
         this.layer = -1;
-        MBPattern pattern = patterns[index];
         setupScene(pattern);
         if (slotWidgets != null) {
             for (SlotWidget slotWidget : slotWidgets) {
@@ -197,13 +222,13 @@ public class PatternWidget extends WidgetGroup {
             addWidget(slotWidgets[i]);
         }
         leftButton.setVisible(index > 0);
-        rightButton.setVisible(index < patterns.length - 1);
+        rightButton.setVisible(index < designs.size() - 1);
         updateClientSlots();
         switchWidget.setPressed(pattern.controllerBase.isFormed());
     }
 
     private void onFormedSwitch(ClickData clickData, Boolean isPressed) {
-        MBPattern pattern = patterns[index];
+        MBPattern pattern = patterns.get(index);
         ControllerTileEntity controllerBase = pattern.controllerBase;
         if (isPressed) {
             this.layer = -1;
@@ -216,8 +241,8 @@ public class PatternWidget extends WidgetGroup {
     }
 
     private void onPosSelected(BlockPos pos, Direction facing) {
-        if (index >= patterns.length || index < 0) return;
-        TraceabilityPredicate predicate = patterns[index].predicateMap.get(pos);
+        if (index >= patterns.size() || patterns.get(index) == null) return;
+        TraceabilityPredicate predicate = patterns.get(index).predicateMap.get(pos);
         if (predicate != null) {
             predicates.clear();
             predicates.addAll(predicate.common);
@@ -295,7 +320,8 @@ public class PatternWidget extends WidgetGroup {
         super.drawInBackground(matrixStack, mouseX, mouseY, partialTicks);
     }
 
-    private MBPattern initializePattern(MultiblockShapeInfo shapeInfo, HashSet<ItemStackKey> blockDrops) {
+    @Nullable
+    private MBPattern initializePattern(MultiblockShapeInfo shapeInfo) {
         Map<BlockPos, BlockInfo> blockMap = new HashMap<>();
         ControllerTileEntity controllerBase = null;
         BlockPos multiPos = locateNextRegion(500);
@@ -322,7 +348,6 @@ public class PatternWidget extends WidgetGroup {
         world.addBlocks(blockMap);
 
         Map<ItemStackKey, PartInfo> parts = gatherBlockDrops(blockMap);
-        blockDrops.addAll(parts.keySet());
 
         Map<BlockPos, TraceabilityPredicate> predicateMap = new HashMap<>();
         if (controllerBase != null) {
@@ -358,6 +383,24 @@ public class PatternWidget extends WidgetGroup {
         }
     }
 
+    /**
+     * Item forms of all blocks in the design, without placing or checking it.
+     */
+    private static void gatherDesignDrops(MultiblockShapeInfo shapeInfo, Set<ItemStackKey> drops) {
+        for (BlockInfo[][] aisle : shapeInfo.getBlocks()) {
+            for (BlockInfo[] column : aisle) {
+                for (BlockInfo blockInfo : column) {
+                    BlockState blockState = blockInfo.getBlockState();
+                    ItemStack itemStack = blockInfo.getItemStackForm();
+                    if (itemStack.isEmpty() && !blockState.getFluidState().isEmpty()) {
+                        itemStack = blockState.getFluidState().getType().getBucket().getDefaultInstance();
+                    }
+                    drops.add(new ItemStackKey(itemStack));
+                }
+            }
+        }
+    }
+
     private Map<ItemStackKey, PartInfo> gatherBlockDrops(Map<BlockPos, BlockInfo> blocks) {
         Map<ItemStackKey, PartInfo> partsMap = new Object2ObjectOpenHashMap<>();
         for (Map.Entry<BlockPos, BlockInfo> entry : blocks.entrySet()) {
@@ -90,12 +90,7 @@ public class RecipeMapWidget extends DialogWidget {
     }
 
     private void onSave(ClickData clickData) {
-        if (recipeMap.isFuelRecipeMap()) {
-            recipeMap.fuelRecipes.clear();
-        }
-        recipeMap.recipes.clear();
-        recipeMap.inputCapabilities.clear();
-        recipeMap.outputCapabilities.clear();
+        recipeMap.clearRecipes();
         for (RecipeItem recipeItem : recipes) {
             if (!recipeItem.isFuel) {
                 recipeMap.addRecipe(recipeItem.getRecipe());
@@ -1,6 +1,7 @@
 package com.lowdragmc.multiblocked.api.pattern;
 
 import com.lowdragmc.lowdraglib.utils.BlockInfo;
+import com.lowdragmc.multiblocked.MbdConfig;
 import com.lowdragmc.multiblocked.api.block.BlockComponent;
 import com.lowdragmc.multiblocked.api.block.CustomProperties;
 import com.lowdragmc.multiblocked.api.capability.IO;
@@ -8,6 +9,7 @@ import com.lowdragmc.multiblocked.api.capability.MultiblockCapability;
 import com.lowdragmc.multiblocked.api.pattern.error.PatternError;
 import com.lowdragmc.multiblocked.api.pattern.error.PatternStringError;
 import com.lowdragmc.multiblocked.api.pattern.error.SinglePredicateError;
+import com.lowdragmc.multiblocked.api.pattern.predicates.PredicateComponent;
 import com.lowdragmc.multiblocked.api.pattern.predicates.SimplePredicate;
 import com.lowdragmc.multiblocked.api.pattern.util.PatternMatchContext;
 import com.lowdragmc.multiblocked.api.pattern.util.RelativeDirection;
@@ -17,6 +19,7 @@ import com.lowdragmc.multiblocked.api.tile.part.IPartComponent;
 import com.lowdragmc.multiblocked.client.renderer.impl.CycleBlockStateRenderer;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.entity.player.PlayerEntity;
@@ -28,6 +31,7 @@ import net.minecraft.state.properties.BlockStateProperties;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.Direction;
 import net.minecraft.util.Hand;
+import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.BlockRayTraceResult;
 import net.minecraft.world.World;
@@ -35,6 +39,8 @@ import org.apache.commons.lang3.ArrayUtils;
 
 import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -49,6 +55,7 @@ public class BlockPattern {
 
     static Direction[] FACINGS = {Direction.SOUTH, Direction.NORTH, Direction.WEST, Direction.EAST, Direction.UP, Direction.DOWN};
     static Direction[] FACINGS_H = {Direction.SOUTH, Direction.NORTH, Direction.WEST, Direction.EAST};
+    public static final int MAX_PROBE_CELLS = 64;
     public final int[][] aisleRepetitions;
     public final RelativeDirection[] structureDir;
     protected final TraceabilityPredicate[][][] blockMatches; //[z][y][x]
@@ -56,6 +63,9 @@ public class BlockPattern {
     protected final int thumbLength; //y size
     protected final int palmLength; //x size
     protected final int[] centerOffset; // x, y, z, minZ, maxZ
+    protected final boolean rigid; // no repeatable aisle, every position is fixed relative to the controller
+    protected final int[][] offsetTables; // [facing][b, a, xyz] + aisle step xyz. see buildOffsetTable
+    protected final int[] probeCells; // [c, b, a, z] of cells tested before the full scan. see buildProbeCells
 
     public BlockPattern(TraceabilityPredicate[][][] predicatesIn, RelativeDirection[] structureDir, int[][] aisleRepetitions, int[] centerOffset) {
         this.blockMatches = predicatesIn;
@@ -77,6 +87,110 @@ public class BlockPattern {
         }
         
         this.centerOffset = centerOffset;
+        boolean rigid = true;
+        for (int[] repetition : aisleRepetitions) {
+            if (repetition[0] != repetition[1]) {
+                rigid = false;
+                break;
+            }
+        }
+        this.rigid = rigid;
+        this.offsetTables = new int[Direction.values().length][];
+        for (Direction facing : Direction.values()) {
+            this.offsetTables[facing.ordinal()] = buildOffsetTable(facing);
+        }
+        for (TraceabilityPredicate[][] aisle : predicatesIn) {
+            for (TraceabilityPredicate[] row : aisle) {
+                for (TraceabilityPredicate predicate : row) {
+                    if (predicate != null) {
+                        predicate.compile();
+                    }
+                }
+            }
+        }
+        this.probeCells = buildProbeCells();
+    }
+
+    /**
+     * Cells at a fixed position relative to the controller, which only accept some non-air blocks. Nearest ones first.
+     * A structure can't be formed if any of them has another block, so they are tested before the full scan.
+     */
+    private int[] buildProbeCells() {
+        List<int[]> cells = new ArrayList<>();
+        // aisles are at fixed positions until the first repeatable one
+        if (centerOffset[3] == centerOffset[4]) {
+            for (int c = 0, z = -centerOffset[3]; c < fingerLength; z += aisleRepetitions[c][0], c++) {
+                if (aisleRepetitions[c][0] > 0) {
+                    for (int b = 0; b < thumbLength; b++) {
+                        for (int a = 0; a < palmLength; a++) {
+                            TraceabilityPredicate predicate = blockMatches[c][b][a];
+                            if (predicate != null && !predicate.isCenter && predicate.getRequiredBlocks() != null) {
+                                cells.add(new int[]{c, b, a, z});
+                            }
+                        }
+                    }
+                }
+                if (aisleRepetitions[c][0] != aisleRepetitions[c][1]) break;
+            }
+        }
+        cells.sort(Comparator.comparingInt(cell -> Math.abs(cell[2] - centerOffset[0]) + Math.abs(cell[1] - centerOffset[1]) + Math.abs(cell[3])));
+        int size = Math.min(cells.size(), MAX_PROBE_CELLS);
+        int[] probes = new int[size * 4];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(cells.get(i), 0, probes, i * 4, 4);
+        }
+        return probes;
+    }
+
+    /**
+     * Flat table of the world offsets (relative to the center) of each cell in an aisle at z = 0, followed by the world step of one aisle.
+     * So the offset of a cell is {@code table[i] + z * step} without any allocation.
+     */
+    private int[] buildOffsetTable(Direction facing) {
+        int[] table = new int[thumbLength * palmLength * 3 + 3];
+        int[][] axes = new int[3][]; // world vectors of the pattern x, y, z
+        for (int i = 0; i < 3; i++) {
+            Direction actual = structureDir[i].getActualFacing(facing);
+            axes[i] = new int[]{actual.getStepX(), actual.getStepY(), actual.getStepZ()};
+        }
+        int index = 0;
+        for (int b = 0, y = -centerOffset[1]; b < thumbLength; b++, y++) {
+            for (int a = 0, x = -centerOffset[0]; a < palmLength; a++, x++) {
+                for (int i = 0; i < 3; i++) {
+                    table[index++] = x * axes[0][i] + y * axes[1][i];
+                }
+            }
+        }
+        System.arraycopy(axes[2], 0, table, index, 3);
+        return table;
+    }
+
+    /**
+     * Whether the pattern has no repeatable aisle. A formed structure of a rigid pattern can be revalidated per position.
+     */
+    public boolean isRigid() {
+        return rigid;
+    }
+
+    /**
+     * A cheap check before any full scan, whether the block can be at the controller cell of this pattern.
+     * Component predicates of the controller itself are ignored, since the block is going to be replaced by the controller.
+     */
+    public boolean canBeCenter(BlockState state, ResourceLocation controller) {
+        if (fingerLength == 0 || thumbLength == 0 || palmLength == 0) return false;
+        TraceabilityPredicate center = blockMatches[centerOffset[2]][centerOffset[1]][centerOffset[0]];
+        if (center == null) return true;
+        Block block = state.getBlock();
+        for (List<SimplePredicate> predicates : Arrays.asList(center.common, center.limited)) {
+            for (SimplePredicate predicate : predicates) {
+                if (predicate instanceof PredicateComponent && controller.equals(((PredicateComponent) predicate).location)) continue;
+                Set<Block> blocks = predicate.getAcceptedBlocks();
+                if (blocks == null || blocks.contains(block)) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
     public boolean checkPatternAt(MultiblockState worldState, boolean savePredicate) {
@@ -90,38 +204,73 @@ public class BlockPattern {
         Set<MultiblockCapability<?>> inputCapabilities = controller.getDefinition().getRecipeMap().inputCapabilities;
         Set<MultiblockCapability<?>> outputCapabilities = controller.getDefinition().getRecipeMap().outputCapabilities;
         Direction[] facings = controller.getDefinition().properties.rotationState != CustomProperties.RotationState.NONE ? new Direction[]{frontFacing} : new Direction[]{Direction.SOUTH, Direction.NORTH, Direction.EAST, Direction.WEST};
-        for (Direction facing : facings) {
-            if (checkPatternAt(worldState, centerPos, facing, savePredicate, inputCapabilities, outputCapabilities)) {
-                return true;
+        boolean scan = worldState.beginScan();
+        try {
+            for (Direction facing : facings) {
+                if (checkPatternAt(worldState, centerPos, facing, savePredicate, inputCapabilities, outputCapabilities)) {
+                    return true;
+                }
             }
+            return false;
+        } finally {
+            if (scan) worldState.endScan();
         }
-        return false;
     }
 
     public boolean checkPatternAt(MultiblockState worldState, BlockPos centerPos, Direction facing, boolean savePredicate, Set<MultiblockCapability<?>> inputCapabilities, Set<MultiblockCapability<?>> outputCapabilities) {
+        boolean scan = worldState.beginScan();
+        try {
+            return scanPatternAt(worldState, centerPos, facing, savePredicate, inputCapabilities, outputCapabilities);
+        } finally {
+            if (scan) worldState.endScan();
+        }
+    }
+
+    private boolean scanPatternAt(MultiblockState worldState, BlockPos centerPos, Direction facing, boolean savePredicate, Set<MultiblockCapability<?>> inputCapabilities, Set<MultiblockCapability<?>> outputCapabilities) {
         boolean findFirstAisle = false;
         int minZ = -centerOffset[4];
         worldState.clean();
         PatternMatchContext matchContext = worldState.matchContext;
         Map<SimplePredicate, Integer> globalCount = worldState.globalCount;
+        int[] offsets = offsetTables[facing.ordinal()];
+        int step = offsets.length - 3;
+        int centerX = centerPos.getX(), centerY = centerPos.getY(), centerZ = centerPos.getZ();
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        //Checking probe cells
+        for (int i = 0, count = Math.min(probeCells.length / 4, MbdConfig.PATTERN_PROBE_CELLS.get()) * 4; i < count; i += 4) {
+            TraceabilityPredicate predicate = this.blockMatches[probeCells[i]][probeCells[i + 1]][probeCells[i + 2]];
+            int index = (probeCells[i + 1] * palmLength + probeCells[i + 2]) * 3, z = probeCells[i + 3];
+            pos.set(centerX + offsets[index] + z * offsets[step],
+                    centerY + offsets[index + 1] + z * offsets[step + 1],
+                    centerZ + offsets[index + 2] + z * offsets[step + 2]);
+            if (!worldState.update(pos, predicate)) {
+                return false;
+            }
+            if (!predicate.getRequiredBlocks().contains(worldState.getBlockState().getBlock())) {
+                worldState.setError(new PatternError());
+                return false;
+            }
+        }
         //Checking aisles
         for (int c = 0, z = minZ++, r; c < this.fingerLength; c++) {
             //Checking repeatable slices
             loop:
             for (r = 0; (findFirstAisle ? r < aisleRepetitions[c][1] : z <= -centerOffset[3]); r++) {
                 //Checking single slice
-                for (int b = 0, y = -centerOffset[1]; b < this.thumbLength; b++, y++) {
-                    for (int a = 0, x = -centerOffset[0]; a < this.palmLength; a++, x++) {
+                for (int b = 0, index = 0; b < this.thumbLength; b++) {
+                    for (int a = 0; a < this.palmLength; a++, index += 3) {
                         worldState.setError(null);
                         TraceabilityPredicate predicate = this.blockMatches[c][b][a];
-                        BlockPos pos = setActualRelativeOffset(x, y, z, facing).offset(centerPos.getX(), centerPos.getY(), centerPos.getZ());
+                        pos.set(centerX + offsets[index] + z * offsets[step],
+                                centerY + offsets[index + 1] + z * offsets[step + 1],
+                                centerZ + offsets[index + 2] + z * offsets[step + 2]);
                         if (!worldState.update(pos, predicate)) {
                             return false;
                         }
                         if (!predicate.isAny()) {
-                            worldState.addPosCache(pos);
+                            worldState.addPosCache(pos, predicate);
                             if (savePredicate) {
-                                worldState.getMatchContext().getOrCreate("predicates", (Supplier<HashMap<BlockPos, TraceabilityPredicate>>) HashMap::new).put(pos, predicate);
+                                worldState.getMatchContext().getOrCreate("predicates", (Supplier<HashMap<BlockPos, TraceabilityPredicate>>) HashMap::new).put(pos.immutable(), predicate);
                             }
                         }
                         boolean canPartShared = true;
@@ -135,7 +284,7 @@ public class BlockPattern {
                                 } else {
                                     worldState.getMatchContext()
                                             .getOrCreate("parts", LongOpenHashSet::new)
-                                            .add(worldState.getPos().asLong());
+                                            .add(pos.asLong());
                                 }
                             }
                         }
@@ -154,17 +303,18 @@ public class BlockPattern {
                         }
                         if (tileEntity != null && !predicate.isAny()) {
                             Map<Long, EnumMap<IO, Set<MultiblockCapability<?>>>> capabilities = worldState.getMatchContext().getOrCreate("capabilities", Long2ObjectOpenHashMap::new);
-                            if (!capabilities.containsKey(worldState.getPos().asLong()) && worldState.io != null) {
+                            long posLong = pos.asLong();
+                            if (!capabilities.containsKey(posLong) && worldState.io != null) {
                                 // if predicate has no specific capability requirements. we will check abilities of every blocks
                                 Set<MultiblockCapability<?>> bothFound = new HashSet<>();
                                 for (MultiblockCapability<?> capability : inputCapabilities) { // IN
                                     if (worldState.io == IO.BOTH && outputCapabilities.contains(capability) && capability.isBlockHasCapability(IO.BOTH, tileEntity)) {
                                         bothFound.add(capability);
-                                        capabilities.computeIfAbsent(worldState.getPos().asLong(), l-> new EnumMap<>(IO.class))
+                                        capabilities.computeIfAbsent(posLong, l-> new EnumMap<>(IO.class))
                                                 .computeIfAbsent(IO.BOTH, xx->new HashSet<>())
                                                 .add(capability);
                                     } else if (worldState.io != IO.OUT && capability.isBlockHasCapability(IO.IN, tileEntity)) {
-                                        capabilities.computeIfAbsent(worldState.getPos().asLong(), l-> new EnumMap<>(IO.class))
+                                        capabilities.computeIfAbsent(posLong, l-> new EnumMap<>(IO.class))
                                                 .computeIfAbsent(IO.IN, xx->new HashSet<>())
                                                 .add(capability);
                                     }
@@ -172,7 +322,7 @@ public class BlockPattern {
                                 if (worldState.io != IO.IN) {
                                     for (MultiblockCapability<?> capability : outputCapabilities) { // OUT
                                         if (!bothFound.contains(capability) && capability.isBlockHasCapability(IO.OUT, tileEntity)) {
-                                            capabilities.computeIfAbsent(worldState.getPos().asLong(), l-> new EnumMap<>(IO.class))
+                                            capabilities.computeIfAbsent(posLong, l-> new EnumMap<>(IO.class))
                                                     .computeIfAbsent(IO.OUT, xx->new HashSet<>())
                                                     .add(capability);
                                         }
@@ -203,6 +353,7 @@ public class BlockPattern {
         }
 
         worldState.setError(null);
+        worldState.matchedPattern = this;
         return true;
     }
 
@@ -5,18 +5,27 @@ import com.lowdragmc.multiblocked.api.capability.IO;
 import com.lowdragmc.multiblocked.api.pattern.error.PatternError;
 import com.lowdragmc.multiblocked.api.pattern.error.PatternStringError;
 import com.lowdragmc.multiblocked.api.pattern.predicates.SimplePredicate;
+import com.lowdragmc.multiblocked.api.pattern.util.ChunkSectionReader;
 import com.lowdragmc.multiblocked.api.pattern.util.PatternMatchContext;
 import com.lowdragmc.multiblocked.api.tile.ControllerTileEntity;
-import com.lowdragmc.multiblocked.network.MultiblockedNetworking;
-import com.lowdragmc.multiblocked.network.s2c.SPacketRemoveDisabledRendering;
+import com.lowdragmc.multiblocked.persistence.IChunkStamp;
 import com.lowdragmc.multiblocked.persistence.MultiblockWorldSavedData;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongMaps;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.longs.LongSets;
 import net.minecraft.block.BlockState;
 import net.minecraft.network.PacketBuffer;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.Direction;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.server.ServerWorld;
 
 import javax.annotation.Nullable;
 import java.util.Collection;
@@ -40,6 +49,11 @@ public class MultiblockState {
     public final World world;
     public final BlockPos controllerPos;
     public ControllerTileEntity lastController;
+    // predicates of the last full matching, used to revalidate changed positions only
+    public BlockPattern matchedPattern;
+    public Long2ObjectOpenHashMap<TraceabilityPredicate> matchedPredicates;
+    private ChunkSectionReader reader;
+    private Long2LongOpenHashMap scanStamps; // chunk stamps of the last scan
 
     // persist
     public LongOpenHashSet cache;
@@ -54,6 +68,8 @@ public class MultiblockState {
         this.matchContext = new PatternMatchContext();
         this.globalCount = new HashMap<>();
         cache = new LongOpenHashSet();
+        matchedPattern = null;
+        matchedPredicates = new Long2ObjectOpenHashMap<>();
     }
 
     public boolean update(BlockPos posIn, TraceabilityPredicate predicate) {
@@ -63,7 +79,7 @@ public class MultiblockState {
         this.tileEntityInitialized = false;
         this.predicate = predicate;
         this.error = null;
-        if (!world.isLoaded(posIn)) {
+        if (reader == null ? !world.isLoaded(posIn) : !reader.isLoaded(posIn)) {
             error = UNLOAD_ERROR;
             return false;
         }
@@ -99,7 +115,7 @@ public class MultiblockState {
 
     public BlockState getBlockState() {
         if (this.state == null) {
-            this.state = this.world.getBlockState(this.pos);
+            this.state = reader == null ? this.world.getBlockState(this.pos) : reader.getBlockState(this.pos);
         }
 
         return this.state;
@@ -108,13 +124,49 @@ public class MultiblockState {
     @Nullable
     public TileEntity getTileEntity() {
         if (this.tileEntity == null && !this.tileEntityInitialized) {
-            this.tileEntity = this.world.getBlockEntity(this.pos);
+            this.tileEntity = reader == null ? this.world.getBlockEntity(this.pos) : reader.getTileEntity(this.pos, getBlockState());
             this.tileEntityInitialized = true;
         }
 
         return this.tileEntity;
     }
 
+    /**
+     * Read blocks through a {@link ChunkSectionReader} until {@link #endScan()}, each chunk is resolved only once.
+     *
+     * Only for server worlds, other worlds (e.g. dummy worlds of previews) may not keep their blocks in chunk sections.
+     *
+     * @return false if a scan has already begun, or the world can't be scanned this way.
+     */
+    public boolean beginScan() {
+        if (reader != null || !(world instanceof ServerWorld)) return false;
+        reader = new ChunkSectionReader(world);
+        return true;
+    }
+
+    public void endScan() {
+        if (reader != null) {
+            scanStamps = reader.getStamps();
+            reader = null;
+        }
+    }
+
+    /**
+     * Whether no chunk read by the last scan has been changed since, server thread only.
+     * If so, the result of an async scan can be applied without scanning again.
+     */
+    public boolean isUnchangedSinceScan() {
+        if (scanStamps == null) return false;
+        for (Long2LongMap.Entry entry : Long2LongMaps.fastIterable(scanStamps)) {
+            long chunkPos = entry.getLongKey();
+            Chunk chunk = world.getChunkSource().getChunkNow(ChunkPos.getX(chunkPos), ChunkPos.getZ(chunkPos));
+            if (!(chunk instanceof IChunkStamp) || ((IChunkStamp) chunk).getMbdStamp() != entry.getLongValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public BlockPos getPos() {
         return this.pos.immutable();
     }
@@ -137,18 +189,32 @@ public class MultiblockState {
         cache.add(pos.asLong());
     }
 
+    public void addPosCache(BlockPos pos, TraceabilityPredicate predicate) {
+        cache.add(pos.asLong());
+        matchedPredicates.put(pos.asLong(), predicate);
+    }
+
     public boolean isPosInCache(BlockPos pos) {
         return cache.contains(pos.asLong());
     }
 
+    public boolean isPosInCache(long pos) {
+        return cache.contains(pos);
+    }
+
     public Collection<BlockPos> getCache() {
         return cache.stream().map(BlockPos::of).collect(Collectors.toList());
     }
 
     public void onBlockStateChanged(BlockPos pos) {
-        if (pos.equals(controllerPos)) {
+        onBlockStatesChanged(LongSets.singleton(pos.asLong()));
+    }
+
+    public void onBlockStatesChanged(LongSet positions) {
+        if (positions.contains(controllerPos.asLong())) {
+            MultiblockWorldSavedData mbds = MultiblockWorldSavedData.getOrCreate(world);
             if (this.getMatchContext().containsKey("renderMask")) {
-                MultiblockedNetworking.sendToAll(new SPacketRemoveDisabledRendering(controllerPos));
+                mbds.removeRenderMask(controllerPos);
             }
             if (lastController != null) {
                 lastController.onStructureInvalid();
@@ -156,33 +222,79 @@ public class MultiblockState {
                     lastController.resetOldBlock(world, controllerPos);
                 }
             }
-            MultiblockWorldSavedData mbds = MultiblockWorldSavedData.getOrCreate(world);
             mbds.removeMapping(this);
             mbds.removeLoading(controllerPos);
         } else if (error != UNLOAD_ERROR) {
             ControllerTileEntity controller = getController();
+            if (controller == null) return;
             boolean hasRenderMask = getMatchContext().containsKey("renderMask");
-            if (controller != null && !controller.checkPattern()) {
+            Boolean valid = checkChangedPositions(controller, positions);
+            if (valid == null ? !controller.checkPattern() : !valid) {
                 controller.onStructureInvalid();
                 if (controller.hasOldBlock()) {
                     if (hasRenderMask) {
-                        MultiblockedNetworking.sendToAll(new SPacketRemoveDisabledRendering(controllerPos));
+                        MultiblockWorldSavedData.getOrCreate(world).removeRenderMask(controllerPos);
                     }
                     MultiblockWorldSavedData.getOrCreate(world).removeLoading(controllerPos);
                     controller.resetOldBlock(world, controllerPos);
                 }
                 MultiblockWorldSavedData.getOrCreate(world).removeMapping(this);
-            } else if (controller != null){
+            } else if (valid == null) {
+                // blocks may have changed, e.g. a repeatable aisle
+                MultiblockWorldSavedData.getOrCreate(world).addMapping(controller.state);
                 controller.onStructureFormed();
             }
         }
     }
 
+    /**
+     * Re-test only the changed positions against the predicates they were matched with.
+     * Only plain blocks of a rigid pattern are checked this way, positions of parts, tile entities and counted predicates still need a full re-scan.
+     *
+     * @return whether the structure is still formed, or null if a full re-scan is required.
+     */
+    @Nullable
+    private Boolean checkChangedPositions(ControllerTileEntity controller, LongSet positions) {
+        if (controller.state != this || !isFormed() || matchedPattern == null || !matchedPattern.isRigid() || matchedPattern != controller.getPattern()) {
+            return null;
+        }
+        LongSet parts = matchContext.get("parts");
+        Map<Long, ?> capabilities = matchContext.get("capabilities");
+        for (long pos : positions) {
+            TraceabilityPredicate predicate = matchedPredicates.get(pos);
+            if (predicate == null || !predicate.limited.isEmpty()
+                    || (parts != null && parts.contains(pos))
+                    || (capabilities != null && capabilities.containsKey(pos))) {
+                return null;
+            }
+        }
+        boolean scan = beginScan();
+        try {
+            for (long pos : positions) {
+                TraceabilityPredicate predicate = matchedPredicates.get(pos);
+                if (!update(BlockPos.of(pos), predicate) || getTileEntity() != null) {
+                    return null;
+                }
+                if (!predicate.test(this)) {
+                    if (isFormed()) {
+                        setError(new PatternError());
+                    }
+                    return false;
+                }
+            }
+        } finally {
+            if (scan) endScan();
+        }
+        setError(null);
+        return true;
+    }
+
     public void onChunkLoad() {
         try {
             ControllerTileEntity controller = getController();
             if (controller != null) {
                 if (controller.checkPattern()) {
+                    MultiblockWorldSavedData.getOrCreate(world).addMapping(controller.state);
                     if (!controller.needAlwaysUpdate()) {
                         MultiblockWorldSavedData.getOrCreate(world).addLoading(controller);
                     }
@@ -0,0 +1,71 @@
+package com.lowdragmc.multiblocked.api.pattern;
+
+import java.util.AbstractList;
+
+/**
+ * Designs generated from a pattern, one for each combination of its aisle repetitions.
+ * <br>
+ * Designs are built lazily when accessed and then cached. If there are more than {@link #MAX_DESIGNS} combinations,
+ * designs are sampled evenly over all of them instead, from the smallest shape to the largest one.
+ */
+public class PatternDesigns extends AbstractList<MultiblockShapeInfo> {
+    public static final int MAX_DESIGNS = 32;
+    public final BlockPattern pattern;
+    private final boolean sampled;
+    private final MultiblockShapeInfo[] designs;
+
+    public PatternDesigns(BlockPattern pattern) {
+        this.pattern = pattern;
+        long total = 1;
+        for (int[] repetition : pattern.aisleRepetitions) {
+            if (total <= MAX_DESIGNS) {
+                total *= repetition[1] - repetition[0] + 1;
+            }
+        }
+        this.sampled = total > MAX_DESIGNS;
+        this.designs = new MultiblockShapeInfo[(int) Math.min(total, MAX_DESIGNS)];
+    }
+
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    @Override
+    public MultiblockShapeInfo get(int index) {
+        MultiblockShapeInfo design = designs[index];
+        if (design == null) {
+            designs[index] = design = new MultiblockShapeInfo(pattern.getPreview(getRepetition(index)));
+        }
+        return design;
+    }
+
+    @Override
+    public int size() {
+        return designs.length;
+    }
+
+    /**
+     * Repetitions of the design, the first aisle varies slowest.
+     */
+    public int[] getRepetition(int index) {
+        int[][] aisleRepetitions = pattern.aisleRepetitions;
+        int[] repetition = new int[aisleRepetitions.length];
+        if (sampled) {
+            // digits of the mixed radix fraction, e.g. 0.5 is the middle combination.
+            double fraction = designs.length > 1 ? index / (designs.length - 1.0) : 0;
+            for (int i = 0; i < repetition.length; i++) {
+                int range = aisleRepetitions[i][1] - aisleRepetitions[i][0] + 1;
+                int digit = Math.min((int) (fraction * range), range - 1);
+                fraction = fraction * range - digit;
+                repetition[i] = aisleRepetitions[i][0] + digit;
+            }
+        } else {
+            for (int i = repetition.length - 1; i >= 0; i--) {
+                int range = aisleRepetitions[i][1] - aisleRepetitions[i][0] + 1;
+                repetition[i] = aisleRepetitions[i][0] + index % range;
+                index /= range;
+            }
+        }
+        return repetition;
+    }
+}
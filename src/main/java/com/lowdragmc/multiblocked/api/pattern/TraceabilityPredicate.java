@@ -3,11 +3,17 @@ package com.lowdragmc.multiblocked.api.pattern;
 import com.lowdragmc.lowdraglib.utils.BlockInfo;
 import com.lowdragmc.multiblocked.api.capability.IO;
 import com.lowdragmc.multiblocked.api.pattern.predicates.SimplePredicate;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.block.AirBlock;
+import net.minecraft.block.Block;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -17,6 +23,10 @@ public class TraceabilityPredicate {
     public List<SimplePredicate> common = new ArrayList<>();
     public List<SimplePredicate> limited = new ArrayList<>();
     public boolean isCenter;
+    // common predicates dispatched by block, see compile
+    private transient Reference2ObjectOpenHashMap<Block, SimplePredicate[]> dispatch;
+    private transient SimplePredicate[] fallback;
+    private transient Set<Block> requiredBlocks;
 
     public TraceabilityPredicate() {}
 
@@ -81,6 +91,8 @@ public class TraceabilityPredicate {
     public TraceabilityPredicate setMinGlobalLimited(int min) {
         limited.addAll(common);
         common.clear();
+        dispatch = null;
+        requiredBlocks = null;
         for (SimplePredicate predicate : limited) {
             predicate.minCount = min;
         }
@@ -97,6 +109,8 @@ public class TraceabilityPredicate {
     public TraceabilityPredicate setMaxGlobalLimited(int max) {
         limited.addAll(common);
         common.clear();
+        dispatch = null;
+        requiredBlocks = null;
         for (SimplePredicate predicate : limited) {
             predicate.maxCount = max;
         }
@@ -154,6 +168,65 @@ public class TraceabilityPredicate {
         return this;
     }
 
+    /**
+     * Compile the common predicates into a dispatch table by block identity.
+     * Predicates with accepted blocks are only tested for these blocks, others are tested for every block. The original order is kept.
+     * It should be called again if the predicates have been modified.
+     */
+    public TraceabilityPredicate compile() {
+        this.requiredBlocks = collectRequiredBlocks();
+        Reference2ObjectOpenHashMap<Block, List<SimplePredicate>> byBlock = new Reference2ObjectOpenHashMap<>();
+        List<SimplePredicate> others = new ArrayList<>();
+        for (SimplePredicate predicate : common) {
+            Set<Block> blocks = predicate.getAcceptedBlocks();
+            if (blocks == null) {
+                byBlock.values().forEach(list -> list.add(predicate));
+                others.add(predicate);
+            } else {
+                for (Block block : blocks) {
+                    byBlock.computeIfAbsent(block, b -> new ArrayList<>(others)).add(predicate);
+                }
+            }
+        }
+        if (byBlock.isEmpty()) { // nothing to dispatch
+            this.dispatch = null;
+            return this;
+        }
+        Reference2ObjectOpenHashMap<Block, SimplePredicate[]> dispatch = new Reference2ObjectOpenHashMap<>(byBlock.size());
+        byBlock.forEach((block, list) -> dispatch.put(block, list.toArray(new SimplePredicate[0])));
+        this.fallback = others.toArray(new SimplePredicate[0]);
+        this.dispatch = dispatch;
+        return this;
+    }
+
+    @Nullable
+    private Set<Block> collectRequiredBlocks() {
+        if (common.isEmpty() && limited.isEmpty()) return null;
+        Set<Block> required = new ReferenceOpenHashSet<>();
+        for (List<SimplePredicate> predicates : Arrays.asList(common, limited)) {
+            for (SimplePredicate predicate : predicates) {
+                Set<Block> blocks = predicate.getAcceptedBlocks();
+                if (blocks == null) return null;
+                for (Block block : blocks) {
+                    if (block instanceof AirBlock) return null;
+                    required.add(block);
+                }
+            }
+        }
+        return required;
+    }
+
+    /**
+     * Blocks of which one must be present for this predicate to match, available after {@link #compile()}.
+     * A cell can be rejected by a single lookup, without any side effect.
+     *
+     * @return null if any block may match, or if it accepts air.
+     */
+    @Nullable
+    public Set<Block> getRequiredBlocks() {
+        return requiredBlocks;
+    }
+
     public boolean test(MultiblockState blockWorldState) {
         blockWorldState.io = IO.BOTH;
         boolean flag = false;
@@ -162,7 +235,19 @@ public class TraceabilityPredicate {
                 flag = true;
             }
         }
-        return flag || common.stream().anyMatch(predicate->predicate.test(blockWorldState));
+        if (flag) return true;
+        Reference2ObjectOpenHashMap<Block, SimplePredicate[]> dispatch = this.dispatch;
+        if (dispatch == null) {
+            for (SimplePredicate predicate : common) {
+                if (predicate.test(blockWorldState)) return true;
+            }
+            return false;
+        }
+        SimplePredicate[] candidates = dispatch.get(blockWorldState.getBlockState().getBlock());
+        for (SimplePredicate predicate : candidates == null ? fallback : candidates) {
+            if (predicate.test(blockWorldState)) return true;
+        }
+        return false;
     }
 
     public TraceabilityPredicate or(TraceabilityPredicate other) {
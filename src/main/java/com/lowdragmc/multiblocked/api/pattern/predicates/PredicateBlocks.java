@@ -11,18 +11,20 @@ import com.lowdragmc.lowdraglib.gui.widget.DraggableScrollableWidgetGroup;
 import com.lowdragmc.lowdraglib.gui.widget.LabelWidget;
 import com.lowdragmc.lowdraglib.gui.widget.WidgetGroup;
 import com.lowdragmc.lowdraglib.utils.BlockInfo;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
-import org.apache.commons.lang3.ArrayUtils;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 public class PredicateBlocks extends SimplePredicate {
     public Block[] blocks = new Block[0];
+    private transient Set<Block> blockSet;
     
     public PredicateBlocks() {
         super("blocks");
@@ -38,11 +40,18 @@ public class PredicateBlocks extends SimplePredicate {
     public SimplePredicate buildPredicate() {
         blocks = Arrays.stream(blocks).filter(Objects::nonNull).toArray(Block[]::new);
         if (blocks.length == 0) blocks = new Block[]{Blocks.BARRIER};
-        predicate = state -> ArrayUtils.contains(blocks, state.getBlockState().getBlock());
+        Set<Block> blockSet = new ReferenceOpenHashSet<>(blocks);
+        this.blockSet = blockSet;
+        predicate = state -> blockSet.contains(state.getBlockState().getBlock());
         candidates = () -> Arrays.stream(blocks).map(block -> BlockInfo.fromBlockState(block.defaultBlockState())).toArray(BlockInfo[]::new);
         return this;
     }
 
+    @Override
+    public Set<Block> getAcceptedBlocks() {
+        return blockSet;
+    }
+
     @Override
     public List<WidgetGroup> getConfigWidget(List<WidgetGroup> groups) {
         super.getConfigWidget(groups);
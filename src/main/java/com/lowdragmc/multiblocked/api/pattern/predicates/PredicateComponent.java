@@ -51,6 +51,7 @@ public class PredicateComponent extends SimplePredicate {
     @Override
     public SimplePredicate buildPredicate() {
         predicate = state -> {
+            if (!state.getBlockState().hasTileEntity()) return false;
             TileEntity tileEntity = state.getTileEntity();
             if (tileEntity instanceof IComponent) {
                 return ((IComponent) tileEntity).getDefinition().location.equals(location);
@@ -11,17 +11,20 @@ import com.lowdragmc.lowdraglib.gui.widget.LabelWidget;
 import com.lowdragmc.lowdraglib.gui.widget.WidgetGroup;
 import com.lowdragmc.lowdraglib.utils.BlockInfo;
 import com.lowdragmc.multiblocked.Multiblocked;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
-import org.apache.commons.lang3.ArrayUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 public class PredicateStates extends SimplePredicate {
     public BlockState[] states = new BlockState[0];
+    private transient Set<Block> blockSet;
 
     public PredicateStates() {
         super("states");
@@ -37,11 +40,22 @@ public class PredicateStates extends SimplePredicate {
     public SimplePredicate buildPredicate() {
         states = Arrays.stream(states).filter(Objects::nonNull).toArray(BlockState[]::new);
         if (states.length == 0) states = new BlockState[]{Blocks.BARRIER.defaultBlockState()};
-        predicate = state -> ArrayUtils.contains(states, state.getBlockState());
+        // block states are canonical instances, so they can be compared by identity.
+        Set<BlockState> stateSet = new ReferenceOpenHashSet<>(states);
+        blockSet = new ReferenceOpenHashSet<>();
+        for (BlockState state : states) {
+            blockSet.add(state.getBlock());
+        }
+        predicate = state -> stateSet.contains(state.getBlockState());
         candidates = () -> Arrays.stream(states).map(BlockInfo::fromBlockState).toArray(BlockInfo[]::new);
         return this;
     }
 
+    @Override
+    public Set<Block> getAcceptedBlocks() {
+        return blockSet;
+    }
+
     @Override
     public List<WidgetGroup> getConfigWidget(List<WidgetGroup> groups) {
         super.getConfigWidget(groups);
@@ -21,17 +21,19 @@ import com.lowdragmc.multiblocked.api.pattern.MultiblockState;
 import com.lowdragmc.multiblocked.api.pattern.TraceabilityPredicate;
 import com.lowdragmc.multiblocked.api.pattern.error.PatternStringError;
 import com.lowdragmc.multiblocked.api.pattern.error.SinglePredicateError;
+import com.lowdragmc.multiblocked.persistence.ITileNbtCache;
 import it.unimi.dsi.fastutil.longs.Long2ObjectArrayMap;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.block.Block;
 import net.minecraft.block.Blocks;
 import net.minecraft.client.resources.I18n;
 import net.minecraft.item.ItemStack;
-import net.minecraft.nbt.CompoundNBT;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.JSONUtils;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -47,7 +49,7 @@ import java.util.stream.Collectors;
 
 public class SimplePredicate {
     public static SimplePredicate ANY = new SimplePredicate("any", x -> true, null);
-    public static SimplePredicate AIR = new SimplePredicate("air", blockWorldState -> blockWorldState.getBlockState().getBlock().isAir(blockWorldState.getBlockState(), blockWorldState.getWorld(), blockWorldState.getPos()), null);
+    public static SimplePredicate AIR = new SimplePredicate("air", blockWorldState -> blockWorldState.getBlockState().getBlock().isAir(blockWorldState.getBlockState(), blockWorldState.getWorld(), blockWorldState.pos), null);
     
     public Supplier<BlockInfo[]> candidates;
     public Predicate<MultiblockState> predicate;
@@ -62,6 +64,7 @@ public class SimplePredicate {
     public String slotName;
     public String customTips;
     public String nbtParser;
+    private transient Pattern nbtPattern;
 
     public final String type;
 
@@ -89,6 +92,16 @@ public class SimplePredicate {
         return this;
     }
 
+    /**
+     * The only blocks this predicate can match, {@link TraceabilityPredicate} uses them to dispatch by block identity.
+     *
+     * @return null if it may match any block.
+     */
+    @Nullable
+    public Set<Block> getAcceptedBlocks() {
+        return null;
+    }
+
     @OnlyIn(Dist.CLIENT)
     public List<String> getToolTips(TraceabilityPredicate predicates) {
         List<String> result = new ArrayList<>();
@@ -136,7 +149,7 @@ public class SimplePredicate {
 
     private boolean checkInnerConditions(MultiblockState blockWorldState) {
         if (disableRenderFormed) {
-            blockWorldState.getMatchContext().getOrCreate("renderMask", LongOpenHashSet::new).add(blockWorldState.getPos().asLong());
+            blockWorldState.getMatchContext().getOrCreate("renderMask", LongOpenHashSet::new).add(blockWorldState.pos.asLong());
         }
         if (io != IO.BOTH) {
             if (blockWorldState.io == IO.BOTH) {
@@ -148,8 +161,8 @@ public class SimplePredicate {
         if (nbtParser != null && !blockWorldState.world.isClientSide) {
             TileEntity te = blockWorldState.getTileEntity();
             if (te != null) {
-                CompoundNBT nbt = te.serializeNBT();
-                if (Pattern.compile(nbtParser).matcher(nbt.toString()).find()) {
+                String nbt = te instanceof ITileNbtCache ? ((ITileNbtCache) te).getMbdNbtString() : te.serializeNBT().toString();
+                if (getNbtPattern().matcher(nbt).find()) {
                     return true;
                 }
             }
@@ -164,6 +177,17 @@ public class SimplePredicate {
         return true;
     }
 
+    /**
+     * The nbt parser compiled once, it's recompiled only if the parser has been modified.
+     */
+    private Pattern getNbtPattern() {
+        Pattern pattern = nbtPattern;
+        if (pattern == null || !pattern.pattern().equals(nbtParser)) {
+            nbtPattern = pattern = Pattern.compile(nbtParser);
+        }
+        return pattern;
+    }
+
     public boolean testGlobal(MultiblockState blockWorldState) {
         if (minCount == -1 && maxCount == -1) return true;
         Integer count = blockWorldState.globalCount.get(this);
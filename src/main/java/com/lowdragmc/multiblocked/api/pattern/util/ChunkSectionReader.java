@@ -0,0 +1,85 @@
+package com.lowdragmc.multiblocked.api.pattern.util;
+
+import com.lowdragmc.multiblocked.persistence.IChunkStamp;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
+
+import javax.annotation.Nullable;
+
+/**
+ * Block reader used during a structure scan. Each chunk is resolved once per scan and block states are read from the chunk section directly,
+ * instead of going through the world (and the chunk provider) for every position.
+ * <br>
+ * It holds chunks, so it should only live as long as one scan. Works on both the main thread and the async threads.
+ * The {@link IChunkStamp} of each chunk is recorded before its blocks are read, see {@link #getStamps()}.
+ */
+public class ChunkSectionReader {
+    private static final BlockState AIR = Blocks.AIR.defaultBlockState();
+    private final World world;
+    private final Long2ObjectOpenHashMap<Chunk> chunks = new Long2ObjectOpenHashMap<>();
+    private final Long2LongOpenHashMap stamps = new Long2LongOpenHashMap();
+    private long lastChunkPos = ChunkPos.INVALID_CHUNK_POS;
+    private Chunk lastChunk;
+
+    public ChunkSectionReader(World world) {
+        this.world = world;
+    }
+
+    @Nullable
+    private Chunk getChunk(BlockPos pos) {
+        long chunkPos = ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+        if (chunkPos == lastChunkPos) {
+            return lastChunk;
+        }
+        Chunk chunk = chunks.get(chunkPos);
+        if (chunk == null) {
+            chunk = world.getChunkSource().getChunkNow(pos.getX() >> 4, pos.getZ() >> 4);
+            if (chunk == null) return null;
+            chunks.put(chunkPos, chunk);
+            stamps.put(chunkPos, chunk instanceof IChunkStamp ? ((IChunkStamp) chunk).getMbdStamp() : -1);
+        }
+        lastChunkPos = chunkPos;
+        lastChunk = chunk;
+        return chunk;
+    }
+
+    /**
+     * Stamps of the chunks read, keyed by chunk position.
+     */
+    public Long2LongOpenHashMap getStamps() {
+        return stamps;
+    }
+
+    public boolean isLoaded(BlockPos pos) {
+        return !World.isOutsideBuildHeight(pos) && getChunk(pos) != null;
+    }
+
+    public BlockState getBlockState(BlockPos pos) {
+        Chunk chunk = World.isOutsideBuildHeight(pos) ? null : getChunk(pos);
+        if (chunk == null) {
+            return world.getBlockState(pos);
+        }
+        ChunkSection section = chunk.getSections()[pos.getY() >> 4];
+        if (ChunkSection.isEmpty(section)) {
+            return AIR;
+        }
+        return section.getBlockState(pos.getX() & 15, pos.getY() & 15, pos.getZ() & 15);
+    }
+
+    @Nullable
+    public TileEntity getTileEntity(BlockPos pos, BlockState state) {
+        if (!state.hasTileEntity()) return null;
+        Chunk chunk = World.isOutsideBuildHeight(pos) ? null : getChunk(pos);
+        TileEntity tileEntity = chunk == null ? null : chunk.getBlockEntities().get(pos);
+        // not created yet, removed or pending, let the world handle it.
+        return tileEntity == null || tileEntity.isRemoved() ? world.getBlockEntity(pos) : tileEntity;
+    }
+}
@@ -0,0 +1,28 @@
+package com.lowdragmc.multiblocked.api.recipe;
+
+import it.unimi.dsi.fastutil.HashCommon;
+
+/**
+ * A 64-bit hash of the contents held by proxies, including amounts. see {@link RecipeSearchCache}.
+ */
+public class ContentFingerprint {
+    private long hash;
+
+    public ContentFingerprint reset() {
+        hash = 0;
+        return this;
+    }
+
+    public ContentFingerprint put(long value) {
+        hash = HashCommon.mix(hash * 31 + value);
+        return this;
+    }
+
+    public ContentFingerprint put(Object object) {
+        return put(object == null ? 0 : object.hashCode());
+    }
+
+    public long get() {
+        return hash;
+    }
+}
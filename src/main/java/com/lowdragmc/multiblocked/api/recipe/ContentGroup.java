@@ -0,0 +1,60 @@
+package com.lowdragmc.multiblocked.api.recipe;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.lowdragmc.multiblocked.api.capability.MultiblockCapability;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contents of a recipe for one capability, grouped by slot name once when the recipe is created.
+ */
+public final class ContentGroup {
+    public static final ContentGroup[] EMPTY = new ContentGroup[0];
+    public final MultiblockCapability<?> capability;
+    public final Content[] slotless;
+    public final String[] slotNames;
+    public final Content[][] slotted;
+    /**
+     * index offset of each slotted group, slotless contents start at 0.
+     */
+    public final int[] slotOffsets;
+    public final int size;
+
+    private ContentGroup(MultiblockCapability<?> capability, List<Content> contents) {
+        this.capability = capability;
+        List<Content> slotless = new ArrayList<>();
+        Map<String, List<Content>> slotted = new LinkedHashMap<>();
+        for (Content content : contents) {
+            if (content.slotName == null) {
+                slotless.add(content);
+            } else {
+                slotted.computeIfAbsent(content.slotName, s -> new ArrayList<>()).add(content);
+            }
+        }
+        this.slotless = slotless.toArray(new Content[0]);
+        this.slotNames = slotted.keySet().toArray(new String[0]);
+        this.slotted = new Content[slotNames.length][];
+        this.slotOffsets = new int[slotNames.length];
+        int offset = this.slotless.length;
+        for (int i = 0; i < slotNames.length; i++) {
+            this.slotted[i] = slotted.get(slotNames[i]).toArray(new Content[0]);
+            this.slotOffsets[i] = offset;
+            offset += this.slotted[i].length;
+        }
+        this.size = offset;
+    }
+
+    public static ContentGroup[] of(ImmutableMap<MultiblockCapability<?>, ImmutableList<Content>> contents) {
+        List<ContentGroup> groups = new ArrayList<>();
+        for (Map.Entry<MultiblockCapability<?>, ImmutableList<Content>> entry : contents.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                groups.add(new ContentGroup(entry.getKey(), entry.getValue()));
+            }
+        }
+        return groups.isEmpty() ? EMPTY : groups.toArray(EMPTY);
+    }
+}
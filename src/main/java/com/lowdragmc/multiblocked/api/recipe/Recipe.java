@@ -8,15 +8,16 @@ import com.lowdragmc.multiblocked.api.capability.ICapabilityProxyHolder;
 import com.lowdragmc.multiblocked.api.capability.IO;
 import com.lowdragmc.multiblocked.api.capability.MultiblockCapability;
 import com.lowdragmc.multiblocked.api.capability.proxy.CapabilityProxy;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import net.minecraft.util.text.ITextComponent;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -32,6 +33,10 @@ public class Recipe {
     public final int duration;
     public final ITextComponent text;
     public final ImmutableList<RecipeCondition> conditions;
+    private final ContentGroup[] inputGroups;
+    private final ContentGroup[] outputGroups;
+    private final ContentGroup[] tickInputGroups;
+    private final ContentGroup[] tickOutputGroups;
 
     public Recipe(String uid,
                   ImmutableMap<MultiblockCapability<?>, ImmutableList<Content>> inputs,
@@ -61,6 +66,51 @@ public class Recipe {
         this.data = data;
         this.text = text;
         this.conditions = conditions;
+        this.inputGroups = ContentGroup.of(inputs);
+        this.outputGroups = ContentGroup.of(outputs);
+        this.tickInputGroups = ContentGroup.of(tickInputs);
+        this.tickOutputGroups = ContentGroup.of(tickOutputs);
+    }
+
+    /**
+     * A copy of this recipe running {@code parallel} recipes at once, contents are multiplied.
+     * Not consumed contents (chance 0) are kept as they are, chanced contents are repeated so each recipe rolls its own chance.
+     *
+     * @return null if any content can't be multiplied. see {@link MultiblockCapability#copyWithModifier(Object, int)}
+     */
+    @Nullable
+    public Recipe copyParallel(int parallel) {
+        if (parallel == 1) return this;
+        ImmutableMap<MultiblockCapability<?>, ImmutableList<Content>> inputs = multiplyContents(this.inputs, parallel);
+        ImmutableMap<MultiblockCapability<?>, ImmutableList<Content>> outputs = multiplyContents(this.outputs, parallel);
+        ImmutableMap<MultiblockCapability<?>, ImmutableList<Content>> tickInputs = multiplyContents(this.tickInputs, parallel);
+        ImmutableMap<MultiblockCapability<?>, ImmutableList<Content>> tickOutputs = multiplyContents(this.tickOutputs, parallel);
+        if (inputs == null || outputs == null || tickInputs == null || tickOutputs == null) return null;
+        return new Recipe(uid, inputs, outputs, tickInputs, tickOutputs, conditions, data, text, duration);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ImmutableMap<MultiblockCapability<?>, ImmutableList<Content>> multiplyContents(ImmutableMap<MultiblockCapability<?>, ImmutableList<Content>> contents, int parallel) {
+        ImmutableMap.Builder<MultiblockCapability<?>, ImmutableList<Content>> builder = ImmutableMap.builder();
+        for (Map.Entry<MultiblockCapability<?>, ImmutableList<Content>> entry : contents.entrySet()) {
+            MultiblockCapability capability = entry.getKey();
+            ImmutableList.Builder<Content> list = ImmutableList.builder();
+            for (Content content : entry.getValue()) {
+                if (content.chance == 0) { // not consumed, e.g. catalysts and tools
+                    list.add(content);
+                } else if (content.chance < 1) { // rolled for each recipe
+                    for (int i = 0; i < parallel; i++) {
+                        list.add(content);
+                    }
+                } else {
+                    Object multiplied = capability.copyWithModifier(content.content, parallel);
+                    if (multiplied == null) return null;
+                    list.add(new Content(multiplied, content.chance, content.slotName));
+                }
+            }
+            builder.put(capability, list.build());
+        }
+        return builder.build();
     }
 
     public Object getData(String key) {
@@ -108,66 +158,16 @@ public class Recipe {
         return true;
     }
 
-    @SuppressWarnings("ALL")
+    /**
+     * Do the inputs (and tick inputs) of the given capabilities match, other capabilities are ignored.
+     */
+    public boolean matchInputs(ICapabilityProxyHolder holder, Set<MultiblockCapability<?>> capabilities) {
+        if (!holder.hasProxies()) return false;
+        return handleContents(IO.IN, holder, inputGroups, true, capabilities) && handleContents(IO.IN, holder, tickInputGroups, true, capabilities);
+    }
+
     public boolean matchRecipe(IO io, ICapabilityProxyHolder holder, ImmutableMap<MultiblockCapability<?>, ImmutableList<Content>> contents) {
-        Table<IO, MultiblockCapability<?>, Long2ObjectOpenHashMap<CapabilityProxy<?>>> capabilityProxies = holder.getCapabilitiesProxy();
-        for (Map.Entry<MultiblockCapability<?>, ImmutableList<Content>> entry : contents.entrySet()) {
-            Set<CapabilityProxy<?>> used = new HashSet<>();
-            List content = new ArrayList<>();
-            Map<String, List> contentSlot = new HashMap<>();
-            for (Content cont : entry.getValue()) {
-                if (cont.slotName == null) {
-                    content.add(cont.content);
-                } else {
-                    contentSlot.computeIfAbsent(cont.slotName, s->new ArrayList<>()).add(cont.content);
-                }
-            }
-            if (content.isEmpty() && contentSlot.isEmpty()) continue;
-            if (content.isEmpty()) content = null;
-            if (capabilityProxies.contains(io, entry.getKey())) {
-                for (CapabilityProxy<?> proxy : capabilityProxies.get(io, entry.getKey()).values()) { // search same io type
-                    if (used.contains(proxy)) continue;
-                    used.add(proxy);
-                    if (content != null) {
-                        content = proxy.searchingRecipe(io, this, content, null);
-                    }
-                    if (proxy.slots != null) {
-                        Iterator<String> iterator = contentSlot.keySet().iterator();
-                        while (iterator.hasNext()) {
-                            String key = iterator.next();
-                            if (proxy.slots.contains(key)) {
-                                List<?> left = proxy.searchingRecipe(io, this, contentSlot.get(key), key);
-                                if (left == null) iterator.remove();
-                            }
-                        }
-                    }
-                    if (content == null && contentSlot.isEmpty()) break;
-                }
-            }
-            if (content == null && contentSlot.isEmpty()) continue;
-            if (capabilityProxies.contains(IO.BOTH, entry.getKey())) {
-                for (CapabilityProxy<?> proxy : capabilityProxies.get(IO.BOTH, entry.getKey()).values()) { // search both type
-                    if (used.contains(proxy)) continue;
-                    used.add(proxy);
-                    if (content != null) {
-                        content = proxy.searchingRecipe(io, this, content, null);
-                    }
-                    if (proxy.slots != null) {
-                        Iterator<String> iterator = contentSlot.keySet().iterator();
-                        while (iterator.hasNext()) {
-                            String key = iterator.next();
-                            if (proxy.slots.contains(key)) {
-                                List<?> left = proxy.searchingRecipe(io, this, contentSlot.get(key), key);
-                                if (left == null) iterator.remove();
-                            }
-                        }
-                    }
-                    if (content == null && contentSlot.isEmpty()) break;
-                }
-            }
-            if (content != null || !contentSlot.isEmpty()) return false;
-        }
-        return true;
+        return handleContents(io, holder, getContentGroups(contents), true);
     }
 
     public boolean handleTickRecipeIO(IO io, ICapabilityProxyHolder holder) {
@@ -180,71 +180,71 @@ public class Recipe {
         return handleRecipe(io, holder, io == IO.IN ? inputs : outputs);
     }
 
-    @SuppressWarnings("ALL")
     public boolean handleRecipe(IO io, ICapabilityProxyHolder holder, ImmutableMap<MultiblockCapability<?>, ImmutableList<Content>> contents) {
+        if (!handleContents(io, holder, getContentGroups(contents), false)) {
+            Multiblocked.LOGGER.warn("io error while handling a recipe {} outputs. holder: {}", uid, holder);
+            return false;
+        }
+        return true;
+    }
+
+    private ContentGroup[] getContentGroups(ImmutableMap<MultiblockCapability<?>, ImmutableList<Content>> contents) {
+        if (contents == inputs) return inputGroups;
+        if (contents == outputs) return outputGroups;
+        if (contents == tickInputs) return tickInputGroups;
+        if (contents == tickOutputs) return tickOutputGroups;
+        return ContentGroup.of(contents);
+    }
+
+    /**
+     * Search (same io type first, then both type) proxies to handle the grouped contents.
+     * Simulated passes use pooled copies of {@link RecipeScratch}, thus don't allocate.
+     */
+    private boolean handleContents(IO io, ICapabilityProxyHolder holder, ContentGroup[] groups, boolean simulate) {
+        return handleContents(io, holder, groups, simulate, null);
+    }
+
+    private boolean handleContents(IO io, ICapabilityProxyHolder holder, ContentGroup[] groups, boolean simulate, @Nullable Set<MultiblockCapability<?>> only) {
         Table<IO, MultiblockCapability<?>, Long2ObjectOpenHashMap<CapabilityProxy<?>>> capabilityProxies = holder.getCapabilitiesProxy();
-        for (Map.Entry<MultiblockCapability<?>, ImmutableList<Content>> entry : contents.entrySet()) {
-            Set<CapabilityProxy<?>> used = new HashSet<>();
-            List content = new ArrayList<>();
-            Map<String, List> contentSlot = new HashMap<>();
-            for (Content cont : entry.getValue()) {
-                if (cont.chance == 1 || Multiblocked.RNG.nextFloat() < cont.chance) { // chance input
-                    if (cont.slotName == null) {
-                        content.add(cont.content);
-                    } else {
-                        contentSlot.computeIfAbsent(cont.slotName, s->new ArrayList<>()).add(cont.content);
-                    }
+        RecipeScratch scratch = RecipeScratch.get();
+        for (ContentGroup group : groups) {
+            if (only != null && !only.contains(group.capability)) continue;
+            scratch.prepare(group, simulate);
+            if (scratch.isFinished()) continue;
+            Long2ObjectOpenHashMap<CapabilityProxy<?>> proxies = capabilityProxies.get(io, group.capability);
+            if (proxies != null) {
+                for (CapabilityProxy<?> proxy : proxies.values()) { // search same io type
+                    if (handleProxy(io, proxy, group, scratch, simulate)) break;
                 }
             }
-            if (content.isEmpty() && contentSlot.isEmpty()) continue;
-            if (content.isEmpty()) content = null;
-            if (capabilityProxies.contains(io, entry.getKey())) {
-                for (CapabilityProxy<?> proxy : capabilityProxies.get(io, entry.getKey()).values()) { // search same io type
-                    if (used.contains(proxy)) continue;
-                    used.add(proxy);
-                    if (content != null) {
-                        content = proxy.handleRecipe(io, this, content, null);
-                    }
-                    if (proxy.slots != null) {
-                        Iterator<String> iterator = contentSlot.keySet().iterator();
-                        while (iterator.hasNext()) {
-                            String key = iterator.next();
-                            if (proxy.slots.contains(key)) {
-                                List<?> left = proxy.handleRecipe(io, this, contentSlot.get(key), key);
-                                if (left == null) iterator.remove();
-                            }
-                        }
-                    }
-                    if (content == null && contentSlot.isEmpty()) break;
+            if (scratch.isFinished()) continue;
+            Long2ObjectOpenHashMap<CapabilityProxy<?>> bothProxies = capabilityProxies.get(IO.BOTH, group.capability);
+            if (bothProxies != null) {
+                for (Long2ObjectMap.Entry<CapabilityProxy<?>> entry : Long2ObjectMaps.fastIterable(bothProxies)) { // search both type
+                    if (proxies != null && proxies.containsKey(entry.getLongKey())) continue; // already used
+                    if (handleProxy(io, entry.getValue(), group, scratch, simulate)) break;
                 }
             }
-            if (content == null && contentSlot.isEmpty()) continue;
-            if (capabilityProxies.contains(IO.BOTH, entry.getKey())){
-                for (CapabilityProxy<?> proxy : capabilityProxies.get(IO.BOTH, entry.getKey()).values()) { // search both type
-                    if (used.contains(proxy)) continue;
-                    used.add(proxy);
-                    if (content != null) {
-                        content = proxy.handleRecipe(io, this, content, null);
-                    }
-                    if (proxy.slots != null) {
-                        Iterator<String> iterator = contentSlot.keySet().iterator();
-                        while (iterator.hasNext()) {
-                            String key = iterator.next();
-                            if (proxy.slots.contains(key)) {
-                                List<?> left = proxy.handleRecipe(io, this, contentSlot.get(key), key);
-                                if (left == null) iterator.remove();
-                            }
-                        }
+            if (!scratch.isFinished()) return false;
+        }
+        return true;
+    }
+
+    private boolean handleProxy(IO io, CapabilityProxy<?> proxy, ContentGroup group, RecipeScratch scratch, boolean simulate) {
+        if (scratch.left != null) {
+            scratch.setLeft(proxy.handleRecipeInPlace(io, this, scratch.left, null, simulate));
+        }
+        if (proxy.slots != null && scratch.remaining > 0) {
+            for (int i = 0; i < group.slotNames.length; i++) {
+                String key = group.slotNames[i];
+                if (!scratch.isDone(i) && proxy.slots.contains(key)) {
+                    if (proxy.handleRecipeInPlace(io, this, scratch.slotted(group, i, simulate), key, simulate) == null) {
+                        scratch.setDone(i);
                     }
-                    if (content == null && contentSlot.isEmpty()) break;
                 }
             }
-            if (content != null || !contentSlot.isEmpty()) {
-                Multiblocked.LOGGER.warn("io error while handling a recipe {} outputs. holder: {}", uid, holder);
-                return false;
-            }
         }
-        return true;
+        return scratch.isFinished();
     }
 
     public boolean hasTick() {
@@ -0,0 +1,94 @@
+package com.lowdragmc.multiblocked.api.recipe;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Table;
+import com.lowdragmc.multiblocked.api.capability.ICapabilityProxyHolder;
+import com.lowdragmc.multiblocked.api.capability.IO;
+import com.lowdragmc.multiblocked.api.capability.MultiblockCapability;
+import com.lowdragmc.multiblocked.api.capability.proxy.CapabilityProxy;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lookup index of recipes, keyed by the ingredient identity of their inputs per {@link MultiblockCapability}.
+ * <br>
+ * Each recipe is indexed by the keys of its first indexable input content. A recipe can only match if one of these keys is held by the proxies,
+ * so only recipes under the held keys need a full match. Recipes without any indexable input are always candidates.
+ */
+public class RecipeIndex {
+    private final Map<MultiblockCapability<?>, Map<Object, List<Recipe>>> indexed = new Object2ObjectOpenHashMap<>();
+    private final List<Recipe> unindexed = new ArrayList<>();
+
+    public void add(Recipe recipe) {
+        if (!index(recipe, recipe.inputs) && !index(recipe, recipe.tickInputs)) {
+            unindexed.add(recipe);
+        }
+    }
+
+    public void clear() {
+        indexed.clear();
+        unindexed.clear();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private boolean index(Recipe recipe, Map<MultiblockCapability<?>, ImmutableList<Content>> contents) {
+        for (Map.Entry<MultiblockCapability<?>, ImmutableList<Content>> entry : contents.entrySet()) {
+            MultiblockCapability capability = entry.getKey();
+            for (Content content : entry.getValue()) {
+                if (content.slotName != null) continue;
+                Collection<?> keys = capability.getLookupKeys(content.content);
+                if (keys == null || keys.isEmpty()) continue;
+                Map<Object, List<Recipe>> map = indexed.computeIfAbsent(capability, c -> new Object2ObjectOpenHashMap<>());
+                for (Object key : keys) {
+                    map.computeIfAbsent(key, k -> new ArrayList<>()).add(recipe);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Candidates which may match the contents of the given holder. They still need a full match.
+     */
+    public Collection<Recipe> getCandidates(ICapabilityProxyHolder holder) {
+        Set<Recipe> candidates = new ObjectLinkedOpenHashSet<>(unindexed);
+        if (indexed.isEmpty()) return candidates;
+        Table<IO, MultiblockCapability<?>, Long2ObjectOpenHashMap<CapabilityProxy<?>>> proxies = holder.getCapabilitiesProxy();
+        Set<Object> keys = new ObjectOpenHashSet<>();
+        for (Map.Entry<MultiblockCapability<?>, Map<Object, List<Recipe>>> entry : indexed.entrySet()) {
+            MultiblockCapability<?> capability = entry.getKey();
+            if (!proxies.contains(IO.IN, capability) && !proxies.contains(IO.BOTH, capability)) continue;
+            keys.clear();
+            if (collectLookupKeys(proxies.get(IO.IN, capability), keys) && collectLookupKeys(proxies.get(IO.BOTH, capability), keys)) {
+                for (Object key : keys) {
+                    List<Recipe> recipes = entry.getValue().get(key);
+                    if (recipes != null) {
+                        candidates.addAll(recipes);
+                    }
+                }
+            } else {
+                for (List<Recipe> recipes : entry.getValue().values()) {
+                    candidates.addAll(recipes);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private static boolean collectLookupKeys(Long2ObjectOpenHashMap<CapabilityProxy<?>> proxies, Set<Object> keys) {
+        if (proxies == null) return true;
+        for (CapabilityProxy<?> proxy : proxies.values()) {
+            if (!proxy.collectLookupKeys(keys)) return false;
+        }
+        return true;
+    }
+}
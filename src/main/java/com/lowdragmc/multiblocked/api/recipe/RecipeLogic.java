@@ -4,6 +4,7 @@ package com.lowdragmc.multiblocked.api.recipe;
 import com.lowdragmc.multiblocked.Multiblocked;
 import com.lowdragmc.multiblocked.api.capability.IO;
 import com.lowdragmc.multiblocked.api.capability.proxy.CapabilityProxy;
+import com.lowdragmc.multiblocked.api.definition.ControllerDefinition;
 import com.lowdragmc.multiblocked.api.kubejs.events.RecipeFinishEvent;
 import com.lowdragmc.multiblocked.api.kubejs.events.SetupRecipeEvent;
 import com.lowdragmc.multiblocked.api.tile.ControllerTileEntity;
@@ -11,6 +12,7 @@ import com.lowdragmc.multiblocked.persistence.MultiblockWorldSavedData;
 import dev.latvian.kubejs.script.ScriptType;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.util.math.MathHelper;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -18,6 +20,8 @@ import java.util.List;
 public class RecipeLogic {
     public final ControllerTileEntity controller;
     public Recipe lastRecipe;
+    public Recipe baseRecipe; // recipe before multiplied by parallel
+    public int parallel = 1;
     public List<Recipe> lastFailedMatches;
 
     public int progress;
@@ -27,6 +31,8 @@ public class RecipeLogic {
     public int timer;
     private Status status = Status.IDLE;
     private long lastPeriod;
+    private int backoff; // level of the retry backoff, retrying every 5 << backoff ticks
+    private int cooldown; // retries to be skipped
     private final MultiblockWorldSavedData mbwsd;
 
     public RecipeLogic(ControllerTileEntity controller) {
@@ -44,7 +50,12 @@ public class RecipeLogic {
         timer++;
         if (getStatus() != Status.IDLE && lastRecipe != null) {
             if (getStatus() == Status.SUSPEND && timer % 5 == 0) {
-                checkAsyncRecipeSearching(this::handleRecipeWorking);
+                if (!isBackingOff()) {
+                    checkAsyncRecipeSearching(this::handleRecipeWorking);
+                    if (getStatus() == Status.SUSPEND) {
+                        increaseBackoff();
+                    }
+                }
             } else {
                 if (getStatus() == Status.WORKING) {
                     handleRecipeWorking();
@@ -55,7 +66,7 @@ public class RecipeLogic {
             }
         } else if (lastRecipe != null) {
             findAndHandleRecipe();
-        } else if (timer % 5 == 0) {
+        } else if (timer % 5 == 0 && !isBackingOff()) {
             checkAsyncRecipeSearching(this::findAndHandleRecipe);
             if (lastFailedMatches != null) {
                 for (Recipe recipe : lastFailedMatches) {
@@ -68,10 +79,60 @@ public class RecipeLogic {
                     }
                 }
             }
+            if (getStatus() != Status.WORKING) {
+                increaseBackoff();
+            }
         }
         if (fuelTime > 0) fuelTime--;
     }
 
+    /**
+     * Whether skipping this retry. Idle and suspended controllers retry less frequently each time they fail, up to {@link ControllerDefinition#maxSearchBackoff}.
+     * It's reset immediately once any proxy has been changed. Sync searching never backs off.
+     */
+    private boolean isBackingOff() {
+        if (cooldown <= 0 || !controller.asyncRecipeSearching) return false;
+        if (hasProxyChanged()) {
+            resetBackoff();
+            return false;
+        }
+        cooldown--;
+        return true;
+    }
+
+    private void increaseBackoff() {
+        if (!controller.asyncRecipeSearching) return;
+        backoff = Math.min(backoff + 1, MathHelper.clamp(controller.getDefinition().maxSearchBackoff, 0, 16));
+        cooldown = (1 << backoff) - 1;
+    }
+
+    public void resetBackoff() {
+        backoff = 0;
+        cooldown = 0;
+    }
+
+    /**
+     * @return level of the retry backoff, idle or suspended controller retries every {@code 5 << backoff} ticks.
+     */
+    public int getBackoff() {
+        return backoff;
+    }
+
+    private boolean hasProxyChanged() {
+        if (!controller.hasProxies()) return false;
+        if (mbwsd.getPeriodID() < lastPeriod) return true;
+        for (Long2ObjectOpenHashMap<CapabilityProxy<?>> map : controller.getCapabilitiesProxy().values()) {
+            if (map != null) {
+                for (CapabilityProxy<?> proxy : map.values()) {
+                    if (proxy != null && proxy.getLatestPeriodID() > lastPeriod) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
     public void handleRecipeWorking() {
         Status last = this.status;
         if (lastRecipe.checkConditions(this) && handleFuelRecipe()) {
@@ -126,8 +187,9 @@ public class RecipeLogic {
     public void findAndHandleRecipe() {
         Recipe recipe;
         lastFailedMatches = null;
-        if (lastRecipe != null && lastRecipe.matchRecipe(this.controller) && lastRecipe.matchTickRecipe(this.controller) && lastRecipe.checkConditions(this)) {
-            recipe = lastRecipe;
+        Recipe base = getBaseRecipe();
+        if (base != null && base.matchRecipe(this.controller) && base.matchTickRecipe(this.controller) && base.checkConditions(this)) {
+            recipe = base;
             lastRecipe = null;
             setupRecipe(recipe);
         } else {
@@ -184,9 +246,13 @@ public class RecipeLogic {
             recipe = event.getRecipe();
         }
         if (handleFuelRecipe()) {
-            recipe.preWorking(this.controller);
-            if (recipe.handleRecipeIO(IO.IN, this.controller)) {
-                lastRecipe = recipe;
+            int parallel = findParallel(recipe);
+            Recipe parallelRecipe = parallel > 1 ? recipe.copyParallel(parallel) : recipe;
+            parallelRecipe.preWorking(this.controller);
+            if (parallelRecipe.handleRecipeIO(IO.IN, this.controller)) {
+                lastRecipe = parallelRecipe;
+                baseRecipe = recipe;
+                this.parallel = parallel;
                 setStatus(Status.WORKING);
                 progress = 0;
                 duration = recipe.duration;
@@ -195,9 +261,36 @@ public class RecipeLogic {
         }
     }
 
+    /**
+     * The largest amount of recipes which can run at once, up to {@link ControllerDefinition#maxParallel}.
+     * Binary searched by simulated matching of the multiplied recipe.
+     */
+    public int findParallel(Recipe recipe) {
+        int low = 1, high = MathHelper.clamp(controller.getDefinition().maxParallel, 1, ControllerDefinition.MAX_PARALLEL);
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            Recipe parallelRecipe = recipe.copyParallel(mid);
+            // null if it can't be multiplied, or it would overflow at this amount
+            if (parallelRecipe != null && parallelRecipe.matchRecipe(controller) && parallelRecipe.matchTickRecipe(controller)) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    public Recipe getBaseRecipe() {
+        if (lastRecipe == null) return null;
+        return parallel > 1 && baseRecipe != null ? baseRecipe : lastRecipe;
+    }
+
     public void setStatus(Status status) {
         if (this.status != status) {
             this.status = status;
+            if (status == Status.WORKING) {
+                resetBackoff();
+            }
             controller.setStatus(status.name);
         }
     }
@@ -228,8 +321,9 @@ public class RecipeLogic {
         }
         lastRecipe.postWorking(this.controller);
         lastRecipe.handleRecipeIO(IO.OUT, this.controller);
-        if (lastRecipe.matchRecipe(this.controller) && lastRecipe.matchTickRecipe(this.controller) && lastRecipe.checkConditions(this)) {
-            setupRecipe(lastRecipe);
+        Recipe base = getBaseRecipe();
+        if (base.matchRecipe(this.controller) && base.matchTickRecipe(this.controller) && base.checkConditions(this)) {
+            setupRecipe(base);
         } else {
             setStatus(Status.IDLE);
             progress = 0;
@@ -243,7 +337,13 @@ public class RecipeLogic {
     }
 
     public void readFromNBT(CompoundNBT compound) {
-        lastRecipe = compound.contains("recipe") ? controller.getDefinition().getRecipeMap().recipes.get(compound.getString("recipe")) : null;
+        baseRecipe = compound.contains("recipe") ? controller.getDefinition().getRecipeMap().recipes.get(compound.getString("recipe")) : null;
+        parallel = compound.contains("parallel") ? Math.max(1, compound.getInt("parallel")) : 1;
+        lastRecipe = baseRecipe == null ? null : baseRecipe.copyParallel(parallel);
+        if (lastRecipe == null) {
+            lastRecipe = baseRecipe;
+            parallel = 1;
+        }
         if (lastRecipe != null) {
             status = compound.contains("status") ? Status.values()[compound.getInt("status")] : Status.WORKING;
             duration = lastRecipe.duration;
@@ -256,6 +356,9 @@ public class RecipeLogic {
     public CompoundNBT writeToNBT(CompoundNBT compound) {
         if (lastRecipe != null && status != Status.IDLE) {
             compound.putString("recipe", lastRecipe.uid);
+            if (parallel > 1) {
+                compound.putInt("parallel", parallel);
+            }
             compound.putInt("status", status.ordinal());
             compound.putInt("progress", progress);
             compound.putInt("fuelTime", fuelTime);
@@ -10,9 +10,11 @@ import com.lowdragmc.multiblocked.api.capability.ICapabilityProxyHolder;
 import com.lowdragmc.multiblocked.api.capability.IO;
 import com.lowdragmc.multiblocked.api.capability.MultiblockCapability;
 import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -40,6 +42,9 @@ public class RecipeMap {
     }
 
     public HashMap<String, Recipe> recipes = new HashMap<>();
+    private final RecipeIndex recipeIndex = new RecipeIndex();
+    private final RecipeIndex fuelIndex = new RecipeIndex();
+    private final RecipeSearchCache searchCache = new RecipeSearchCache();
 
     public RecipeMap(String name) {
         this.name = name;
@@ -54,6 +59,7 @@ public class RecipeMap {
         copy.fuelRecipes = fuelRecipes == null ? null : new ArrayList<>(fuelRecipes);
         copy.categoryTexture = categoryTexture;
         copy.recipes.putAll(recipes);
+        copy.rebuildIndex();
         return copy;
     }
 
@@ -93,7 +99,13 @@ public class RecipeMap {
     }
 
     public void addRecipe(Recipe recipe) {
-        recipes.put(recipe.uid, recipe);
+        Recipe last = recipes.put(recipe.uid, recipe);
+        if (last != null) {
+            rebuildIndex();
+        } else {
+            recipeIndex.add(recipe);
+        }
+        searchCache.clear();
         inputCapabilities.addAll(recipe.inputs.keySet());
         inputCapabilities.addAll(recipe.tickInputs.keySet());
         outputCapabilities.addAll(recipe.outputs.keySet());
@@ -105,17 +117,69 @@ public class RecipeMap {
             fuelRecipes = new ArrayList<>();
         }
         fuelRecipes.add(recipe);
+        fuelIndex.add(recipe);
         inputCapabilities.addAll(recipe.inputs.keySet());
     }
 
+    public void clearRecipes() {
+        recipes.clear();
+        if (fuelRecipes != null) {
+            fuelRecipes.clear();
+        }
+        inputCapabilities.clear();
+        outputCapabilities.clear();
+        recipeIndex.clear();
+        fuelIndex.clear();
+        searchCache.clear();
+    }
+
+    /**
+     * Rebuild the lookup index, e.g. the recipes were modified directly or the tags were reloaded.
+     */
+    public void rebuildIndex() {
+        recipeIndex.clear();
+        recipes.values().forEach(recipeIndex::add);
+        fuelIndex.clear();
+        if (fuelRecipes != null) {
+            fuelRecipes.forEach(fuelIndex::add);
+        }
+        searchCache.clear();
+    }
+
     public List<Recipe> searchRecipe(ICapabilityProxyHolder holder) {
         if (!holder.hasProxies()) return Collections.emptyList();
+        Set<MultiblockCapability<?>> fingerprinted = new ReferenceOpenHashSet<>();
+        Long fingerprint = searchCache.isEnabled() ? searchCache.fingerprint(holder, inputCapabilities, fingerprinted) : null;
         List<Recipe> matches = new ArrayList<>();
-        for (Recipe recipe : recipes.values()) {
-            if (recipe.matchRecipe(holder) && recipe.matchTickRecipe(holder)) {
+        Collection<Recipe> cached = fingerprint == null ? null : searchCache.get(fingerprint);
+        if (cached != null) {
+            for (Recipe recipe : cached) {
+                if (recipe.matchRecipe(holder) && recipe.matchTickRecipe(holder)) {
+                    matches.add(recipe);
+                }
+            }
+            return matches;
+        }
+        // inputs and outputs are matched in one pass.
+        // recipes matching the inputs of the fingerprinted capabilities are cached, a superset of the recipes matching all inputs.
+        List<Recipe> inputMatches = fingerprint == null ? null : new ArrayList<>();
+        for (Recipe recipe : recipeIndex.getCandidates(holder)) {
+            if (!recipe.matchRecipe(IO.IN, holder, recipe.inputs) || (recipe.hasTick() && !recipe.matchRecipe(IO.IN, holder, recipe.tickInputs))) {
+                if (inputMatches != null && (!fingerprinted.containsAll(recipe.inputs.keySet()) || !fingerprinted.containsAll(recipe.tickInputs.keySet())) && recipe.matchInputs(holder, fingerprinted)) {
+                    inputMatches.add(recipe);
+                }
+                continue;
+            }
+            if (inputMatches != null) {
+                inputMatches.add(recipe);
+            }
+            if (recipe.matchRecipe(IO.OUT, holder, recipe.outputs) && (!recipe.hasTick() || recipe.matchRecipe(IO.OUT, holder, recipe.tickOutputs))) {
                 matches.add(recipe);
             }
         }
+        if (inputMatches != null) {
+            searchCache.put(fingerprint, inputMatches);
+        }
         return matches;
     }
 
@@ -127,7 +191,7 @@ public class RecipeMap {
     public List<Recipe> searchFuelRecipe(ICapabilityProxyHolder holder) {
         if (!holder.hasProxies() || !isFuelRecipeMap()) return Collections.emptyList();
         List<Recipe> matches = new ArrayList<>();
-        for (Recipe recipe : fuelRecipes) {
+        for (Recipe recipe : fuelIndex.getCandidates(holder)) {
             if (recipe.matchRecipe(holder) && recipe.matchTickRecipe(holder)) {
                 matches.add(recipe);
             }
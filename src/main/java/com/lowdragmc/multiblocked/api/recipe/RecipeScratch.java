@@ -0,0 +1,138 @@
+package com.lowdragmc.multiblocked.api.recipe;
+
+import com.lowdragmc.multiblocked.Multiblocked;
+import com.lowdragmc.multiblocked.api.capability.MultiblockCapability;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Per-thread scratch buffers for matching and handling recipes, so that searching recipes doesn't allocate.
+ * <br>
+ * Copies of contents are pooled for simulated passes and reset by {@link MultiblockCapability#resetCopy(Object, Object)} before reuse.
+ */
+final class RecipeScratch {
+    private static final ThreadLocal<RecipeScratch> SCRATCH = ThreadLocal.withInitial(RecipeScratch::new);
+
+    private final List<Object> slotless = new ArrayList<>();
+    private final List<Object> slotted = new ArrayList<>();
+    private final Map<Content[], Object[]> copies = new WeakHashMap<>();
+    private boolean[] picked = new boolean[16];
+    private boolean[] done = new boolean[4];
+    /**
+     * left slotless contents, null - nothing left.
+     */
+    List<?> left;
+    /**
+     * count of slotted groups not handled yet.
+     */
+    int remaining;
+
+    static RecipeScratch get() {
+        return SCRATCH.get();
+    }
+
+    /**
+     * Prepare buffers for the given group.
+     *
+     * @param simulate simulated pass. chance of contents is only rolled while handling.
+     */
+    void prepare(ContentGroup group, boolean simulate) {
+        if (picked.length < group.size) {
+            picked = new boolean[Math.max(group.size, picked.length * 2)];
+        }
+        if (done.length < group.slotNames.length) {
+            done = new boolean[Math.max(group.slotNames.length, done.length * 2)];
+        }
+        roll(group.slotless, 0, simulate);
+        for (int i = 0; i < group.slotted.length; i++) {
+            roll(group.slotted[i], group.slotOffsets[i], simulate);
+        }
+        slotless.clear();
+        fill(slotless, group, group.slotless, 0, simulate);
+        left = slotless.isEmpty() ? null : slotless;
+        remaining = 0;
+        for (int i = 0; i < group.slotted.length; i++) {
+            done[i] = true;
+            for (int j = 0; j < group.slotted[i].length; j++) {
+                if (picked[group.slotOffsets[i] + j]) {
+                    done[i] = false;
+                    remaining++;
+                    break;
+                }
+            }
+        }
+    }
+
+    boolean isDone(int slot) {
+        return done[slot];
+    }
+
+    void setDone(int slot) {
+        if (!done[slot]) {
+            done[slot] = true;
+            remaining--;
+        }
+    }
+
+    /**
+     * Update left slotless contents after a proxy handled them. Keep them in the scratch list, proxies may return an immutable one.
+     */
+    void setLeft(List<?> result) {
+        if (result == null || result.isEmpty()) {
+            left = null;
+        } else if (result != slotless) {
+            List<Object> copy = new ArrayList<>(result);
+            slotless.clear();
+            slotless.addAll(copy);
+            left = slotless;
+        }
+    }
+
+    /**
+     * Fresh contents of the given slotted group. they should be used before next call.
+     */
+    List<Object> slotted(ContentGroup group, int slot, boolean simulate) {
+        slotted.clear();
+        fill(slotted, group, group.slotted[slot], group.slotOffsets[slot], simulate);
+        return slotted;
+    }
+
+    boolean isFinished() {
+        return left == null && remaining == 0;
+    }
+
+    private void roll(Content[] contents, int offset, boolean simulate) {
+        for (int i = 0; i < contents.length; i++) {
+            float chance = contents[i].chance;
+            picked[offset + i] = simulate || chance == 1 || Multiblocked.RNG.nextFloat() < chance;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void fill(List<Object> list, ContentGroup group, Content[] contents, int offset, boolean simulate) {
+        if (contents.length == 0) return;
+        MultiblockCapability capability = group.capability;
+        if (!simulate) {
+            for (int i = 0; i < contents.length; i++) {
+                if (picked[offset + i]) {
+                    list.add(capability.copyInner(contents[i].content));
+                }
+            }
+            return;
+        }
+        Object[] pool = copies.get(contents);
+        if (pool == null) {
+            pool = new Object[contents.length];
+            copies.put(contents, pool);
+        }
+        for (int i = 0; i < contents.length; i++) {
+            Object copy = pool[i];
+            copy = copy == null ? capability.copyInner(contents[i].content) : capability.resetCopy(copy, contents[i].content);
+            pool[i] = copy;
+            list.add(copy);
+        }
+    }
+}
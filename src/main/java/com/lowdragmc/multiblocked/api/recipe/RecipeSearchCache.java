@@ -0,0 +1,85 @@
+package com.lowdragmc.multiblocked.api.recipe;
+
+import com.google.common.collect.Table;
+import com.lowdragmc.multiblocked.MbdConfig;
+import com.lowdragmc.multiblocked.api.capability.ICapabilityProxyHolder;
+import com.lowdragmc.multiblocked.api.capability.IO;
+import com.lowdragmc.multiblocked.api.capability.MultiblockCapability;
+import com.lowdragmc.multiblocked.api.capability.proxy.CapabilityProxy;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * LRU cache of recipes whose inputs are matched by the input contents of a holder, keyed by the {@link ContentFingerprint} of these contents.
+ * <br>
+ * It is owned by a {@link RecipeMap}, so it's shared by all controllers of the same recipe map.
+ * Identical factories in the same state only cost one lookup. Cached recipes still need a full match, since outputs are not fingerprinted.
+ */
+public class RecipeSearchCache {
+    private static final IO[] INPUT_IO = {IO.IN, IO.BOTH};
+    private final Long2ObjectLinkedOpenHashMap<List<Recipe>> cache = new Long2ObjectLinkedOpenHashMap<>();
+    private final ContentFingerprint fingerprint = new ContentFingerprint();
+
+    /**
+     * Fingerprint of all IN and BOTH proxies of the given capabilities.
+     * Proxies are combined without order, so the same contents in another factory have the same fingerprint.
+     * <br>
+     * Capabilities with any proxy which can't be fingerprinted (e.g. FE) are left out, cached recipes only need to match the inputs of
+     * the fingerprinted capabilities, so they stay valid whatever the other contents are. Hits are fully matched anyway.
+     *
+     * @param fingerprinted collector of the capabilities in the fingerprint.
+     * @return fingerprint, or null if no capability can be fingerprinted.
+     */
+    public Long fingerprint(ICapabilityProxyHolder holder, Set<MultiblockCapability<?>> capabilities, Set<MultiblockCapability<?>> fingerprinted) {
+        Table<IO, MultiblockCapability<?>, Long2ObjectOpenHashMap<CapabilityProxy<?>>> proxies = holder.getCapabilitiesProxy();
+        long result = 0;
+        fingerprinted.clear();
+        for (MultiblockCapability<?> capability : capabilities) {
+            long capabilityResult = HashCommon.mix((long) capability.hashCode());
+            boolean complete = true;
+            for (IO io : INPUT_IO) {
+                Long2ObjectOpenHashMap<CapabilityProxy<?>> map = proxies.get(io, capability);
+                if (map == null) continue;
+                for (CapabilityProxy<?> proxy : map.values()) {
+                    fingerprint.reset().put(capability).put(io.ordinal()).put(proxy.slots);
+                    if (!proxy.collectFingerprint(fingerprint)) {
+                        complete = false;
+                        break;
+                    }
+                    capabilityResult += HashCommon.mix(fingerprint.get());
+                }
+                if (!complete) break;
+            }
+            if (complete) {
+                fingerprinted.add(capability);
+                result += capabilityResult;
+            }
+        }
+        return fingerprinted.isEmpty() ? null : result;
+    }
+
+    public boolean isEnabled() {
+        return MbdConfig.RECIPE_SEARCH_CACHE.get() > 0;
+    }
+
+    public List<Recipe> get(long fingerprint) {
+        return cache.getAndMoveToLast(fingerprint);
+    }
+
+    public void put(long fingerprint, List<Recipe> recipes) {
+        int capacity = MbdConfig.RECIPE_SEARCH_CACHE.get();
+        if (capacity <= 0) return;
+        while (cache.size() >= capacity) {
+            cache.removeFirst();
+        }
+        cache.putAndMoveToLast(fingerprint, recipes);
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+}
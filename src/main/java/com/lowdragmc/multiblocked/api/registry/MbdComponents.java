@@ -12,6 +12,8 @@ import com.lowdragmc.multiblocked.api.definition.ControllerDefinition;
 import com.lowdragmc.multiblocked.api.tile.DummyComponentTileEntity;
 import com.lowdragmc.multiblocked.client.renderer.ComponentTESR;
 import com.lowdragmc.multiblocked.jei.multipage.MultiblockInfoCategory;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 import net.minecraft.block.Block;
 import net.minecraft.client.renderer.RenderTypeLookup;
 import net.minecraft.item.BlockItem;
@@ -38,6 +40,8 @@ public class MbdComponents {
     public static final Map<ResourceLocation, BlockItem> COMPONENT_ITEMS_REGISTRY = new HashMap<>();
     public static final Map<ItemStack, ControllerDefinition[]> NO_NEED_CONTROLLER_MB = new HashMap<>();
     public static final Set<Item> CATALYST_SET = new HashSet<>();
+    // keys of NO_NEED_CONTROLLER_MB by item and the hash of their tag
+    private static final Map<Item, Int2ObjectOpenHashMap<List<ItemStack>>> CATALYST_INDEX = new Reference2ObjectOpenHashMap<>();
     public static final BlockComponent DummyComponentBlock;
     public static final ItemComponent DummyComponentItem;
 
@@ -143,25 +147,37 @@ public class MbdComponents {
 
     public static void registerNoNeedController(ItemStack catalyst, ControllerDefinition definition) {
         CATALYST_SET.add(catalyst.getItem());
-        ItemStack key = catalyst;
-        for (ItemStack itemStack : NO_NEED_CONTROLLER_MB.keySet()) {
-            if (ItemStack.isSame(itemStack, catalyst) && ItemStack.tagMatches(itemStack, catalyst)) {
-                key = itemStack;
-                break;
+        ItemStack key = findCatalystKey(catalyst);
+        if (key == null) {
+            key = catalyst;
+            Int2ObjectOpenHashMap<List<ItemStack>> byTag = CATALYST_INDEX.computeIfAbsent(catalyst.getItem(), item -> new Int2ObjectOpenHashMap<>());
+            int hash = Objects.hashCode(catalyst.getTag());
+            List<ItemStack> keys = byTag.get(hash);
+            if (keys == null) {
+                byTag.put(hash, keys = new ArrayList<>());
             }
+            keys.add(key);
         }
         NO_NEED_CONTROLLER_MB.put(key, ArrayUtils.add(NO_NEED_CONTROLLER_MB.get(key), definition));
     }
 
     public static ControllerDefinition[] checkNoNeedController(ItemStack catalyst) {
         if (catalyst == null) return new ControllerDefinition[0];
-        if (CATALYST_SET.contains(catalyst.getItem())) {
-            for (ItemStack itemStack : NO_NEED_CONTROLLER_MB.keySet()) {
-                if (ItemStack.isSame(itemStack, catalyst) && ItemStack.tagMatches(itemStack, catalyst)) {
-                    return NO_NEED_CONTROLLER_MB.get(itemStack);
-                }
+        ItemStack key = findCatalystKey(catalyst);
+        return key == null ? new ControllerDefinition[0] : NO_NEED_CONTROLLER_MB.get(key);
+    }
+
+    @Nullable
+    private static ItemStack findCatalystKey(ItemStack catalyst) {
+        Int2ObjectOpenHashMap<List<ItemStack>> byTag = CATALYST_INDEX.get(catalyst.getItem());
+        if (byTag == null) return null;
+        List<ItemStack> keys = byTag.get(Objects.hashCode(catalyst.getTag()));
+        if (keys == null) return null;
+        for (ItemStack itemStack : keys) {
+            if (ItemStack.isSame(itemStack, catalyst) && ItemStack.tagMatches(itemStack, catalyst)) {
+                return itemStack;
             }
         }
-        return new ControllerDefinition[0];
+        return null;
     }
 }
@@ -105,6 +105,27 @@ public abstract class ComponentTileEntity<T extends ComponentDefinition> extends
         return level != null && !isRemote() && (definition.needUpdateTick() || traits.values().stream().anyMatch(CapabilityTrait::hasUpdate));
     }
 
+    /**
+     * Whether the deferrable part of its update, see {@link #updateDeferred()}, can be postponed to a later tick when the tick budget has run out.
+     * The rest of {@link #update()} (timer, scripts, traits) still runs every tick.
+     */
+    public boolean canDeferUpdate() {
+        return false;
+    }
+
+    /**
+     * Update of a tick. If {@code deferred}, the deferrable part is left to {@link #updateDeferred()} instead.
+     */
+    public void update(boolean deferred) {
+        update();
+    }
+
+    /**
+     * The deferrable part of the update, e.g. recipe searching of an idle controller.
+     */
+    public void updateDeferred() {
+    }
+
     public boolean hasTrait(MultiblockCapability<?> capability) {
         return traits.get(capability) != null;
     }
@@ -1,6 +1,5 @@
 package com.lowdragmc.multiblocked.api.tile;
 
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Table;
 import com.google.common.collect.Tables;
 import com.lowdragmc.lowdraglib.gui.factory.TileEntityUIFactory;
@@ -56,6 +55,7 @@ import net.minecraftforge.fml.server.ServerLifecycleHooks;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.Arrays;
 import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
@@ -74,6 +74,7 @@ public class ControllerTileEntity extends ComponentTileEntity<ControllerDefiniti
     protected Table<IO, MultiblockCapability<?>, Long2ObjectOpenHashMap<CapabilityProxy<?>>> capabilities;
     private Map<Long, Map<MultiblockCapability<?>, Tuple<IO, Direction>>> settings;
     protected LongOpenHashSet parts;
+    private boolean deferRecipeLogic; // recipe logic is left to updateDeferred() in this update
     protected RecipeLogic recipeLogic;
     protected AxisAlignedBB renderBox;
     protected BlockState oldState;
@@ -120,8 +121,18 @@ public class ControllerTileEntity extends ComponentTileEntity<ControllerDefiniti
         }
     }
 
+    @Override
+    public void update(boolean deferred) {
+        deferRecipeLogic = deferred;
+        try {
+            update();
+        } finally {
+            deferRecipeLogic = false;
+        }
+    }
+
     public void updateFormed() {
-        if (recipeLogic != null) {
+        if (recipeLogic != null && !deferRecipeLogic) {
             recipeLogic.update();
         }
         if (Multiblocked.isKubeJSLoaded() && level != null) {
@@ -270,19 +281,27 @@ public class ControllerTileEntity extends ComponentTileEntity<ControllerDefiniti
         buffer.writeBoolean(isFormed());
         if (isFormed()) {
             LongSet disabled = state.getMatchContext().getOrDefault("renderMask", LongSets.EMPTY_SET);
-            buffer.writeVarInt(disabled.size());
-            for (long blockPos : disabled) {
-                buffer.writeLong(blockPos);
+            // sorted and delta encoded, neighbours in a column only differ by a few bits.
+            long[] poses = disabled.toLongArray();
+            Arrays.sort(poses);
+            buffer.writeVarInt(poses.length);
+            for (int i = 0; i < poses.length; i++) {
+                if (i == 0) {
+                    buffer.writeLong(poses[0]);
+                } else {
+                    buffer.writeVarLong(poses[i] - poses[i - 1]);
+                }
             }
             int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
-            for (BlockPos pos : state.getCache()) {
-                minX = Math.min(minX, pos.getX());
-                minY = Math.min(minY, pos.getY());
-                minZ = Math.min(minZ, pos.getZ());
-
-                maxX = Math.max(maxX, pos.getX());
-                maxY = Math.max(maxY, pos.getY());
-                maxZ = Math.max(maxZ, pos.getZ());
+            for (long pos : state.cache) {
+                int x = BlockPos.getX(pos), y = BlockPos.getY(pos), z = BlockPos.getZ(pos);
+                minX = Math.min(minX, x);
+                minY = Math.min(minY, y);
+                minZ = Math.min(minZ, z);
+
+                maxX = Math.max(maxX, x);
+                maxY = Math.max(maxY, y);
+                maxZ = Math.max(maxZ, z);
             }
             buffer.writeBlockPos(new BlockPos(minX, minY, minZ));
             buffer.writeBlockPos(new BlockPos(maxX + 1, maxY + 1, maxZ + 1));
@@ -295,17 +314,17 @@ public class ControllerTileEntity extends ComponentTileEntity<ControllerDefiniti
             state.setError(null);
             int size = buffer.readVarInt();
             if (size > 0) {
-                ImmutableList.Builder<BlockPos> listBuilder = new ImmutableList.Builder<>();
-                for (int i = size; i > 0; i--) {
-                    listBuilder.add(BlockPos.of(buffer.readLong()));
+                long[] poses = new long[size];
+                poses[0] = buffer.readLong();
+                for (int i = 1; i < size; i++) {
+                    poses[i] = poses[i - 1] + buffer.readVarLong();
                 }
-                MultiblockWorldSavedData.addDisableModel(state.controllerPos, listBuilder.build());
+                MultiblockWorldSavedData.addDisableModel(state.controllerPos, poses);
             }
             renderBox = new AxisAlignedBB(buffer.readBlockPos(), buffer.readBlockPos());
         } else {
-            if (state != null) {
-                MultiblockWorldSavedData.removeDisableModel(state.controllerPos);
-            }
+            // the mask may have been added by a former tile entity, e.g. before the chunk was reloaded.
+            MultiblockWorldSavedData.removeDisableModel(worldPosition);
             state = null;
             renderBox = null;
         }
@@ -466,13 +485,20 @@ public class ControllerTileEntity extends ComponentTileEntity<ControllerDefiniti
     public void asyncThreadLogic(long periodID) {
         if (!isFormed() && getDefinition().getCatalyst() == null && (getOffset() + periodID) % 4 == 0) {
             BlockPattern pattern = getPattern();
-            if (pattern != null && pattern.checkPatternAt(new MultiblockState(level, worldPosition), false)) {
+            MultiblockState scanned = new MultiblockState(level, worldPosition);
+            if (pattern != null && pattern.checkPatternAt(scanned, false)) {
                 ServerLifecycleHooks.getCurrentServer().execute(() -> {
-                    if (state == null) state = new MultiblockState(level, worldPosition);
-                    if (checkPattern()) { // formed
-                        MultiblockWorldSavedData.getOrCreate(level).addMapping(state);
-                        onStructureFormed();
+                    if (isRemoved()) return;
+                    if (scanned.matchedPattern == getPattern() && scanned.isUnchangedSinceScan() && arePartsAvailable(scanned)) {
+                        // nothing read by the async scan has been changed, take its result.
+                        state = scanned;
+                    } else {
+                        if (state == null) state = new MultiblockState(level, worldPosition);
+                        if (!checkPattern()) return;
                     }
+                    // formed
+                    MultiblockWorldSavedData.getOrCreate(level).addMapping(state);
+                    onStructureFormed();
                 });
             }
         }
@@ -494,11 +520,41 @@ public class ControllerTileEntity extends ComponentTileEntity<ControllerDefiniti
         }
     }
 
+    /**
+     * Claiming a part doesn't change any block, so another controller may have taken a part since the async scan.
+     */
+    private boolean arePartsAvailable(MultiblockState scanned) {
+        LongSet parts = scanned.getMatchContext().get("parts");
+        if (parts == null) return true;
+        for (long pos : parts) {
+            TileEntity tileEntity = level.getBlockEntity(BlockPos.of(pos));
+            if (tileEntity instanceof IPartComponent) {
+                IPartComponent part = (IPartComponent) tileEntity;
+                if (part.isFormed() && !part.canShared() && !part.hasController(worldPosition)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     @Override
     public boolean isWorking() {
         return getRecipeLogic() != null && getRecipeLogic().isWorking();
     }
 
+    @Override
+    public boolean canDeferUpdate() {
+        return isFormed() && recipeLogic != null && !isWorking();
+    }
+
+    @Override
+    public void updateDeferred() {
+        if (isFormed() && recipeLogic != null) {
+            recipeLogic.update();
+        }
+    }
+
     public void saveOldBlock(BlockState oldState, CompoundNBT oldNbt) {
         this.oldState = oldState;
         if (oldNbt != null) {
@@ -115,7 +115,7 @@ public abstract class PartTileEntity<T extends PartDefinition> extends Component
     @Override
     public void load(@Nonnull BlockState state, @Nonnull CompoundNBT compound) {
         super.load(state, compound);
-        for (MultiblockState multiblockState : MultiblockWorldSavedData.getOrCreate(level).getControllerInChunk(new ChunkPos(getBlockPos()))) {
+        for (MultiblockState multiblockState : MultiblockWorldSavedData.getOrCreate(level).getStructuresInChunk(ChunkPos.asLong(getBlockPos().getX() >> 4, getBlockPos().getZ() >> 4))) {
             if(multiblockState.isPosInCache(getBlockPos())) {
                 controllerPos.add(multiblockState.controllerPos);
             }
@@ -7,9 +7,11 @@ import com.lowdragmc.multiblocked.api.pattern.MultiblockShapeInfo;
 import com.lowdragmc.multiblocked.api.tile.ControllerTileEntity;
 import com.mojang.blaze3d.matrix.MatrixStack;
 import com.mojang.blaze3d.systems.RenderSystem;
+import net.minecraft.block.BlockRenderType;
 import net.minecraft.block.BlockState;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.BlockRendererDispatcher;
+import net.minecraft.client.renderer.BufferBuilder;
 import net.minecraft.client.renderer.IRenderTypeBuffer;
 import net.minecraft.client.renderer.RenderType;
 import net.minecraft.client.renderer.RenderTypeLookup;
@@ -18,6 +20,7 @@ import net.minecraft.client.renderer.texture.AtlasTexture;
 import net.minecraft.client.renderer.texture.OverlayTexture;
 import net.minecraft.client.renderer.tileentity.TileEntityRenderer;
 import net.minecraft.client.renderer.tileentity.TileEntityRendererDispatcher;
+import net.minecraft.client.renderer.vertex.VertexBuffer;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.Direction;
 import net.minecraft.util.Rotation;
@@ -35,6 +38,8 @@ import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 import org.lwjgl.opengl.GL11;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -52,6 +57,9 @@ public class MultiblockPreviewRenderer {
     private static BlockPos controllerPos;
     private static TrackedDummyWorld world;
     private static Map<BlockPos, BlockInfo> blockMap;
+    // meshed once per shown layer, null if it needs to be (re)built.
+    private static VertexBuffer[] layerBuffers;
+    private static List<BlockPos> tileEntities = Collections.emptyList();
 
     @SubscribeEvent
     public static void renderWorldLastEvent(RenderWorldLastEvent event) {
@@ -103,6 +111,7 @@ public class MultiblockPreviewRenderer {
     public static void resetMultiblockRender() {
         mbpPos = null;
         mbpEndTime = 0;
+        releaseBuffers();
     }
 
     public static void renderControllerInList(ControllerTileEntity controllerBase, MultiblockShapeInfo shapeInfo, int layer) {
@@ -130,6 +139,7 @@ public class MultiblockPreviewRenderer {
                 }
             }
         }
+        releaseBuffers();
         world = new TrackedDummyWorld();
         world.addBlocks(blockMap);
         int finalMaxY = layer % (maxY + 1);
@@ -145,8 +155,9 @@ public class MultiblockPreviewRenderer {
     }
 
     public static void render(MatrixStack stack, IRenderTypeBuffer buffer) {
-        Minecraft mc = Minecraft.getInstance();
-        BlockRendererDispatcher brd = mc.getBlockRenderer();
+        if (layerBuffers == null) {
+            rebuildBuffers();
+        }
         stack.pushPose();
         stack.translate(mbpPos.getX(), mbpPos.getY(), mbpPos.getZ());
 
@@ -169,50 +180,110 @@ public class MultiblockPreviewRenderer {
             stack.translate(-0.5, -0.5, -0.5);
         }
 
-        if (mte != null) {
-            mte.checkPattern();
+        List<RenderType> layers = RenderType.chunkBufferLayers();
+        for (int i = 0; i < layerBuffers.length; i++) {
+            VertexBuffer vertexBuffer = layerBuffers[i];
+            if (vertexBuffer == null) continue;
+            RenderType renderType = layers.get(i);
+            renderType.setupRenderState();
+            vertexBuffer.bind();
+            renderType.format().setupBufferState(0L);
+            vertexBuffer.draw(stack.last().pose(), renderType.mode());
+            VertexBuffer.unbind();
+            renderType.format().clearBufferState();
+            renderType.clearRenderState();
         }
 
-        RenderType lastType = MinecraftForgeClient.getRenderLayer();
-        for (BlockPos pos : blockMap.keySet()) {
-            if (controllerPos.equals(pos)) continue;
-            stack.pushPose();
-            BlockPos.Mutable tPos = pos.subtract(controllerPos).mutable();
-            stack.translate(tPos.getX(), tPos.getY(), tPos.getZ());
-            stack.translate(0.125, 0.125, 0.125);
-            stack.scale(0.75f, 0.75f, 0.75f);
-
-            BlockState state = world.getBlockState(pos);
+        if (!tileEntities.isEmpty()) {
+            float partialTicks = Minecraft.getInstance().getFrameTime();
+            for (BlockPos pos : tileEntities) {
+                TileEntity tileEntity = world.getBlockEntity(pos);
+                if (tileEntity == null) continue;
+                TileEntityRenderer<TileEntity> tesr = TileEntityRendererDispatcher.instance.getRenderer(tileEntity);
+                if (tesr == null) continue;
+                stack.pushPose();
+                translateBlock(stack, pos);
+                try {
+                    tesr.render(tileEntity, partialTicks, stack, buffer, 0xf000f0, OverlayTexture.NO_OVERLAY);
+                } catch (Exception ignored) {
 
-            for (RenderType renderType : RenderType.chunkBufferLayers()) {
-                ForgeHooksClient.setRenderLayer(renderType);
-                brd.renderModel(state, pos, world, stack, buffer.getBuffer(RenderTypeLookup.getRenderType(state, false)), false, Multiblocked.RNG, EmptyModelData.INSTANCE);
+                }
+                stack.popPose();
             }
+            // restore the states once, some renderers don't clean up after themselves.
+            RenderSystem.enableTexture();
+            RenderSystem.enableBlend();
+            RenderSystem.enableCull();
+            RenderSystem.blendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+            Minecraft.getInstance().getTextureManager().bind(AtlasTexture.LOCATION_BLOCKS);
+            RenderSystem.color4f(1F, 1F, 1F, 1F);
+        }
 
-            TileEntity tileEntity = world.getBlockEntity(pos);
+        stack.popPose();
+    }
 
-            if (tileEntity != null) {
-                TileEntityRenderer<TileEntity> tesr = TileEntityRendererDispatcher.instance.getRenderer(tileEntity);
-                if (tesr != null) {
-                    try {
-                        tesr.render(tileEntity, Minecraft.getInstance().getFrameTime(), stack, buffer, 0xf000f0, OverlayTexture.NO_OVERLAY);
-                        RenderSystem.enableTexture();
-                        RenderSystem.enableBlend();
-                        RenderSystem.enableCull();
-                        RenderSystem.blendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
-                        Minecraft.getInstance().getTextureManager().bind(AtlasTexture.LOCATION_BLOCKS);
-                        RenderSystem.color4f(1F, 1F, 1F, 1F);
-                    } catch (Exception ignored) {
+    private static void translateBlock(MatrixStack stack, BlockPos pos) {
+        stack.translate(pos.getX() - controllerPos.getX(), pos.getY() - controllerPos.getY(), pos.getZ() - controllerPos.getZ());
+        stack.translate(0.125, 0.125, 0.125);
+        stack.scale(0.75f, 0.75f, 0.75f);
+    }
 
-                    }
+    /**
+     * Mesh the shown layer of the preview into a vertex buffer per render type, blocks are only meshed in the layers they render in.
+     * The pattern of the dummy controller is checked here too, so it's formed before its model is meshed.
+     */
+    private static void rebuildBuffers() {
+        releaseBuffers();
+        if (mte != null) {
+            mte.checkPattern();
+        }
+        BlockRendererDispatcher brd = Minecraft.getInstance().getBlockRenderer();
+        List<RenderType> layers = RenderType.chunkBufferLayers();
+        layerBuffers = new VertexBuffer[layers.size()];
+        tileEntities = new ArrayList<>();
+        for (BlockPos pos : blockMap.keySet()) {
+            if (!controllerPos.equals(pos) && world.getBlockEntity(pos) != null) {
+                tileEntities.add(pos);
+            }
+        }
+        MatrixStack stack = new MatrixStack();
+        RenderType lastType = MinecraftForgeClient.getRenderLayer();
+        for (int i = 0; i < layers.size(); i++) {
+            RenderType renderType = layers.get(i);
+            ForgeHooksClient.setRenderLayer(renderType);
+            BufferBuilder builder = null;
+            for (BlockPos pos : blockMap.keySet()) {
+                if (controllerPos.equals(pos)) continue;
+                BlockState state = world.getBlockState(pos);
+                if (state.getRenderShape() != BlockRenderType.MODEL || !RenderTypeLookup.canRenderInLayer(state, renderType)) continue;
+                if (builder == null) {
+                    builder = new BufferBuilder(renderType.bufferSize());
+                    builder.begin(renderType.mode(), renderType.format());
                 }
+                stack.pushPose();
+                translateBlock(stack, pos);
+                brd.renderModel(state, pos, world, stack, builder, false, Multiblocked.RNG, EmptyModelData.INSTANCE);
+                stack.popPose();
+            }
+            if (builder != null) {
+                builder.end();
+                layerBuffers[i] = new VertexBuffer(renderType.format());
+                layerBuffers[i].upload(builder);
             }
-
-            stack.popPose();
         }
         ForgeHooksClient.setRenderLayer(lastType);
+    }
 
-        stack.popPose();
+    private static void releaseBuffers() {
+        if (layerBuffers != null) {
+            for (VertexBuffer vertexBuffer : layerBuffers) {
+                if (vertexBuffer != null) {
+                    vertexBuffer.close();
+                }
+            }
+            layerBuffers = null;
+        }
+        tileEntities = Collections.emptyList();
     }
 
 }
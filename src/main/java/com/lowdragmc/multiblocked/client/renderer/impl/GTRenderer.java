@@ -32,14 +32,18 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.IBlockDisplayReader;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
+import net.minecraftforge.client.event.TextureStitchEvent;
 import net.minecraftforge.client.model.ModelLoader;
 import net.minecraftforge.client.model.data.IModelData;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -47,6 +51,7 @@ import java.util.function.Supplier;
 public class GTRenderer extends MBDIModelRenderer {
     public final static GTRenderer INSTANCE = new GTRenderer();
     private static final ResourceLocation VOID = new ResourceLocation("multiblocked:void");
+    private static final int MAX_FORMED_MODELS = 64;
 
     public ResourceLocation baseTexture = new ResourceLocation("multiblocked:blocks/gregtech_base");
     public ResourceLocation frontOverlay = new ResourceLocation("multiblocked:blocks/gregtech_front");
@@ -57,6 +62,8 @@ public class GTRenderer extends MBDIModelRenderer {
     public ResourceLocation downOverlay = VOID;
 
     public boolean formedAsController;
+    // formed models of parts, by the base texture of the controller. see getFormedModel
+    private final Map<ResourceLocation, CustomBakedModel[]> formedModels = new ConcurrentHashMap<>();
 
     private GTRenderer() {
 
@@ -116,14 +123,9 @@ public class GTRenderer extends MBDIModelRenderer {
             IPartComponent part = (IPartComponent) te;
             for (IControllerComponent controller : part.getControllers()) {
                 if (controller.isFormed() && controller.getRenderer() instanceof GTRenderer) {
-                    IBakedModel model = getModel(((GTRenderer) controller.getRenderer()).baseTexture).bake(
-                            ModelLoader.instance(),
-                            ModelLoader.defaultTextureGetter(),
-                            ModelFactory.getRotation(part.getFrontFacing()),
-                            modelLocation);
+                    CustomBakedModel model = getFormedModel(((GTRenderer) controller.getRenderer()).baseTexture, part.getFrontFacing());
                     if (model == null) return Collections.emptyList();
-                    model = new CustomBakedModel(model);
-                    if (!((CustomBakedModel)model).shouldRenderInLayer(state, rand)) return Collections.emptyList();
+                    if (!model.shouldRenderInLayer(state, rand)) return Collections.emptyList();
                     return model.getQuads(state, side, rand, modelData);
                 }
             }
@@ -132,6 +134,39 @@ public class GTRenderer extends MBDIModelRenderer {
 
     }
 
+    /**
+     * The model with the base texture of a formed controller, baked once per base texture and facing until textures are reloaded.
+     */
+    @Nullable
+    @OnlyIn(Dist.CLIENT)
+    protected CustomBakedModel getFormedModel(ResourceLocation baseTexture, Direction facing) {
+        CustomBakedModel[] models = formedModels.get(baseTexture);
+        if (models == null) {
+            if (formedModels.size() >= MAX_FORMED_MODELS) {
+                formedModels.clear();
+            }
+            models = formedModels.computeIfAbsent(baseTexture, texture -> new CustomBakedModel[Direction.values().length]);
+        }
+        CustomBakedModel model = models[facing.ordinal()];
+        if (model == null) {
+            IBakedModel baked = getModel(baseTexture).bake(
+                    ModelLoader.instance(),
+                    ModelLoader.defaultTextureGetter(),
+                    ModelFactory.getRotation(facing),
+                    modelLocation);
+            if (baked == null) return null;
+            models[facing.ordinal()] = model = new CustomBakedModel(baked);
+        }
+        return model;
+    }
+
+    @Override
+    @OnlyIn(Dist.CLIENT)
+    public void onTextureSwitchEvent(TextureStitchEvent.Pre event) {
+        super.onTextureSwitchEvent(event);
+        formedModels.clear();
+    }
+
 
     @OnlyIn(Dist.CLIENT)
     protected IUnbakedModel getModel(ResourceLocation baseTexture) {
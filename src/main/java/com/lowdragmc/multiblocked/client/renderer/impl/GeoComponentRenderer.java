@@ -9,11 +9,13 @@ import com.lowdragmc.lowdraglib.gui.widget.DialogWidget;
 import com.lowdragmc.lowdraglib.gui.widget.DraggableScrollableWidgetGroup;
 import com.lowdragmc.lowdraglib.gui.widget.TextFieldWidget;
 import com.lowdragmc.lowdraglib.gui.widget.WidgetGroup;
+import com.lowdragmc.multiblocked.MbdConfig;
 import com.lowdragmc.multiblocked.Multiblocked;
 import com.lowdragmc.multiblocked.api.tile.IComponent;
 import com.lowdragmc.multiblocked.client.renderer.IMultiblockedRenderer;
 import com.mojang.blaze3d.matrix.MatrixStack;
 import com.mojang.blaze3d.vertex.IVertexBuilder;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import net.minecraft.block.BlockState;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.IRenderTypeBuffer;
@@ -30,6 +32,7 @@ import net.minecraft.util.Direction;
 import net.minecraft.util.JSONUtils;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.vector.Vector3d;
 import net.minecraft.util.math.vector.Vector3f;
 import net.minecraft.world.IBlockDisplayReader;
 import net.minecraftforge.api.distmarker.Dist;
@@ -57,9 +60,12 @@ import software.bernie.geckolib3.util.RenderUtils;
 
 import javax.annotation.Nonnull;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Random;
 import java.util.Set;
@@ -70,6 +76,7 @@ import java.util.function.Supplier;
 public class GeoComponentRenderer extends AnimatedGeoModel<GeoComponentRenderer.ComponentFactory> implements IMultiblockedRenderer, IGeoRenderer<GeoComponentRenderer.ComponentFactory> {
     public final static GeoComponentRenderer INSTANCE = new GeoComponentRenderer(null, false);
     private static final Set<String> particleTexture = new HashSet<>();
+    private static final int MAX_POSES = 64;
 
     static {
         if (Multiblocked.isClient()) {
@@ -85,8 +92,12 @@ public class GeoComponentRenderer extends AnimatedGeoModel<GeoComponentRenderer.
 
     public final String modelName;
     public final boolean isGlobal;
+    private ResourceLocation modelLocation, textureLocation, animationLocation;
     @OnlyIn(Dist.CLIENT)
     private ComponentFactory itemFactory;
+    // shared poses by status and the tick the status was entered, see animate()
+    @OnlyIn(Dist.CLIENT)
+    private Map<String, Long2ObjectOpenHashMap<BonePose>> poses;
 
     public GeoComponentRenderer(String modelName, boolean isGlobal) {
         this.modelName = modelName;
@@ -209,7 +220,7 @@ public class GeoComponentRenderer extends AnimatedGeoModel<GeoComponentRenderer.
             IComponent controller = (IComponent) te;
             ComponentFactory factory = (ComponentFactory) controller.getRendererObject();
             GeoModel model = this.getModel(this.getModelLocation(factory));
-            this.setLivingAnimations(factory, this.getUniqueID(factory));
+            animate(te, factory, model, partialTicks);
 
             stack.pushPose();
             stack.translate(0, 0.01f, 0);
@@ -241,6 +252,58 @@ public class GeoComponentRenderer extends AnimatedGeoModel<GeoComponentRenderer.
         }
     }
 
+    /**
+     * Components of this renderer which entered the same status at the same tick are in the same animation, they share one pose per frame.
+     * So a row of identical machines only processes its animations once.
+     * <br>
+     * Each component still ticks its own animation controller once after entering a status, so its predicate sees every status change and plays
+     * the transition. Components beyond {@link MbdConfig#GEO_ANIMATION_DISTANCE} don't animate, they keep the last pose of their group.
+     */
+    @OnlyIn(Dist.CLIENT)
+    private void animate(TileEntity te, ComponentFactory factory, GeoModel model, float partialTicks) {
+        if (poses == null) {
+            poses = new HashMap<>();
+        }
+        long gameTime = te.getLevel() == null ? 0 : te.getLevel().getGameTime();
+        double time = gameTime + partialTicks;
+        String status = factory.component.getStatus();
+        if (!Objects.equals(status, factory.poseStatus) || factory.poseSince == Long.MIN_VALUE) {
+            factory.poseStatus = status;
+            factory.poseSince = gameTime;
+            factory.ticked = false;
+        }
+        Long2ObjectOpenHashMap<BonePose> group = poses.get(status);
+        if (group == null) {
+            poses.put(status, group = new Long2ObjectOpenHashMap<>());
+        }
+        BonePose pose = group.get(factory.poseSince);
+        if (factory.ticked && pose != null && pose.model == model && (pose.time == time || isFarAway(te))) {
+            pose.lastUsed = gameTime;
+            pose.apply();
+            return;
+        }
+        this.setLivingAnimations(factory, this.getUniqueID(factory));
+        factory.ticked = true;
+        if (pose == null || pose.model != model) {
+            if (group.size() >= MAX_POSES) {
+                // drop groups which haven't been rendered for a while
+                group.values().removeIf(p -> gameTime - p.lastUsed > 200);
+            }
+            pose = new BonePose(model);
+            group.put(factory.poseSince, pose);
+        }
+        pose.lastUsed = gameTime;
+        pose.capture(time);
+    }
+
+    @OnlyIn(Dist.CLIENT)
+    private static boolean isFarAway(TileEntity te) {
+        int distance = MbdConfig.GEO_ANIMATION_DISTANCE.get();
+        if (distance <= 0) return false;
+        Vector3d camera = Minecraft.getInstance().gameRenderer.getMainCamera().getPosition();
+        return te.getBlockPos().distSqr(camera.x, camera.y, camera.z, true) > (double) distance * distance;
+    }
+
     void render(GeoModel model, MatrixStack matrixStackIn, IRenderTypeBuffer buffers, int packedLightIn) {
         IVertexBuilder currentBuffer = buffers.getBuffer(RenderType.entityCutout(getTextureLocation(null)));
         for (GeoBone group : model.topLevelBones) {
@@ -287,17 +350,26 @@ public class GeoComponentRenderer extends AnimatedGeoModel<GeoComponentRenderer.
 
     @Override
     public ResourceLocation getAnimationFileLocation(ComponentFactory entity) {
-        return new ResourceLocation(Multiblocked.MODID, String.format("animations/%s.animation.json", modelName));
+        if (animationLocation == null) {
+            animationLocation = new ResourceLocation(Multiblocked.MODID, String.format("animations/%s.animation.json", modelName));
+        }
+        return animationLocation;
     }
 
     @Override
     public ResourceLocation getModelLocation(ComponentFactory animatable) {
-        return new ResourceLocation(Multiblocked.MODID, String.format("geo/%s.geo.json", modelName));
+        if (modelLocation == null) {
+            modelLocation = new ResourceLocation(Multiblocked.MODID, String.format("geo/%s.geo.json", modelName));
+        }
+        return modelLocation;
     }
 
     @Override
     public ResourceLocation getTextureLocation(ComponentFactory entity) {
-        return new ResourceLocation(Multiblocked.MODID, String.format("textures/%s.png", modelName));
+        if (textureLocation == null) {
+            textureLocation = new ResourceLocation(Multiblocked.MODID, String.format("textures/%s.png", modelName));
+        }
+        return textureLocation;
     }
 
     @Override
@@ -305,11 +377,69 @@ public class GeoComponentRenderer extends AnimatedGeoModel<GeoComponentRenderer.
         return this;
     }
 
+    /**
+     * Snapshot of the animated transforms of all bones of a model.
+     */
+    @OnlyIn(Dist.CLIENT)
+    private static class BonePose {
+        private final GeoModel model;
+        private final List<GeoBone> bones = new ArrayList<>();
+        private final float[] values;
+        private double time = Double.NaN;
+        private long lastUsed;
+
+        private BonePose(GeoModel model) {
+            this.model = model;
+            model.topLevelBones.forEach(this::collect);
+            this.values = new float[bones.size() * 9];
+        }
+
+        private void collect(GeoBone bone) {
+            bones.add(bone);
+            bone.childBones.forEach(this::collect);
+        }
+
+        private void capture(double time) {
+            this.time = time;
+            int i = 0;
+            for (GeoBone bone : bones) {
+                values[i++] = bone.getRotationX();
+                values[i++] = bone.getRotationY();
+                values[i++] = bone.getRotationZ();
+                values[i++] = bone.getPositionX();
+                values[i++] = bone.getPositionY();
+                values[i++] = bone.getPositionZ();
+                values[i++] = bone.getScaleX();
+                values[i++] = bone.getScaleY();
+                values[i++] = bone.getScaleZ();
+            }
+        }
+
+        private void apply() {
+            int i = 0;
+            for (GeoBone bone : bones) {
+                bone.setRotationX(values[i++]);
+                bone.setRotationY(values[i++]);
+                bone.setRotationZ(values[i++]);
+                bone.setPositionX(values[i++]);
+                bone.setPositionY(values[i++]);
+                bone.setPositionZ(values[i++]);
+                bone.setScaleX(values[i++]);
+                bone.setScaleY(values[i++]);
+                bone.setScaleZ(values[i++]);
+            }
+        }
+    }
+
     public static class ComponentFactory implements IAnimatable {
         public final IComponent component;
         public final GeoComponentRenderer renderer;
         public final AnimationFile animationFile;
         public String currentStatus;
+        // animation group of the renderer, see GeoComponentRenderer#animate
+        private String poseStatus;
+        private long poseSince = Long.MIN_VALUE;
+        private boolean ticked;
 
         public ComponentFactory(IComponent component, GeoComponentRenderer renderer) {
             this.component = component;
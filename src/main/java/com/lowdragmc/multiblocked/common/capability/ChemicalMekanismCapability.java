@@ -7,6 +7,7 @@ import com.lowdragmc.multiblocked.api.capability.MultiblockCapability;
 import com.lowdragmc.multiblocked.api.capability.proxy.CapCapabilityProxy;
 import com.lowdragmc.multiblocked.api.capability.trait.CapabilityTrait;
 import com.lowdragmc.multiblocked.api.gui.recipe.ContentWidget;
+import com.lowdragmc.multiblocked.api.recipe.ContentFingerprint;
 import com.lowdragmc.multiblocked.api.recipe.Recipe;
 import com.lowdragmc.multiblocked.common.capability.trait.ChemicalCapabilityTrait;
 import com.lowdragmc.multiblocked.common.capability.widget.ChemicalStackWidget;
@@ -34,6 +35,8 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.function.BiFunction;
@@ -144,6 +147,34 @@ public class ChemicalMekanismCapability<CHEMICAL extends Chemical<CHEMICAL>, STA
         return (STACK) content.copy();
     }
 
+    @Override
+    public STACK resetCopy(STACK copy, STACK content) {
+        if (content.isEmpty() || copy.isEmpty()) {
+            return copyInner(content);
+        }
+        copy.setAmount(content.getAmount());
+        return copy;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public STACK copyWithModifier(STACK content, int multiplier) {
+        STACK copy = (STACK) content.copy();
+        if (!copy.isEmpty()) {
+            try {
+                copy.setAmount(Math.multiplyExact(content.getAmount(), multiplier));
+            } catch (ArithmeticException e) {
+                return null;
+            }
+        }
+        return copy;
+    }
+
+    @Override
+    public Collection<?> getLookupKeys(STACK content) {
+        return content.isEmpty() ? null : Collections.singleton(content.getType());
+    }
+
     @Override
     public ChemicalMekanismCapabilityProxy<CHEMICAL, STACK> createProxy(@Nonnull IO io, @Nonnull TileEntity tileEntity) {
         return new ChemicalMekanismCapabilityProxy<>(this, tileEntity);
@@ -241,6 +272,34 @@ public class ChemicalMekanismCapability<CHEMICAL extends Chemical<CHEMICAL>, STA
             return left.isEmpty() ? null : left;
         }
 
+        @Override
+        public boolean collectLookupKeys(Collection<Object> keys) {
+            IChemicalHandler<CHEMICAL, STACK> capability = getCapability(null);
+            if (capability == null) return true;
+            for (int i = 0; i < capability.getTanks(); i++) {
+                STACK stored = capability.getChemicalInTank(i);
+                if (!stored.isEmpty()) {
+                    keys.add(stored.getType());
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean collectFingerprint(ContentFingerprint fingerprint) {
+            IChemicalHandler<CHEMICAL, STACK> capability = getCapability(null);
+            if (capability == null) return true;
+            for (int i = 0; i < capability.getTanks(); i++) {
+                STACK stored = capability.getChemicalInTank(i);
+                if (stored.isEmpty()) {
+                    fingerprint.put(0);
+                } else {
+                    fingerprint.put(stored.getType()).put(stored.getAmount());
+                }
+            }
+            return true;
+        }
+
         List<STACK> lastStacks = new ArrayList<>(0);
         long[] lastCapability = new long[0];
 
@@ -55,6 +55,15 @@ public class FEMultiblockCapability extends MultiblockCapability<Integer> {
         return content;
     }
 
+    @Override
+    public Integer copyWithModifier(Integer content, int multiplier) {
+        try {
+            return Math.multiplyExact(content, multiplier);
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
     @Override
     public FECapabilityProxy createProxy(@Nonnull IO io, @Nonnull TileEntity tileEntity) {
         return new FECapabilityProxy(tileEntity);
@@ -10,11 +10,13 @@ import com.lowdragmc.lowdraglib.utils.BlockInfo;
 import com.lowdragmc.lowdraglib.utils.TrackedDummyWorld;
 import com.lowdragmc.multiblocked.Multiblocked;
 import com.lowdragmc.multiblocked.api.capability.IO;
+import com.lowdragmc.multiblocked.api.capability.IVersionedContent;
 import com.lowdragmc.multiblocked.api.capability.MultiblockCapability;
 import com.lowdragmc.multiblocked.api.capability.proxy.CapCapabilityProxy;
 import com.lowdragmc.multiblocked.api.capability.trait.CapabilityTrait;
 import com.lowdragmc.multiblocked.api.gui.recipe.ContentWidget;
 import com.lowdragmc.multiblocked.api.kubejs.MultiblockedJSPlugin;
+import com.lowdragmc.multiblocked.api.recipe.ContentFingerprint;
 import com.lowdragmc.multiblocked.api.recipe.Recipe;
 import com.lowdragmc.multiblocked.api.registry.MbdComponents;
 import com.lowdragmc.multiblocked.common.capability.trait.FluidCapabilityTrait;
@@ -32,6 +34,8 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -57,6 +61,27 @@ public class FluidMultiblockCapability extends MultiblockCapability<FluidStack>
         return content.copy();
     }
 
+    @Override
+    public FluidStack resetCopy(FluidStack copy, FluidStack content) {
+        copy.setAmount(content.getAmount());
+        return copy;
+    }
+
+    @Override
+    public FluidStack copyWithModifier(FluidStack content, int multiplier) {
+        FluidStack copy = content.copy();
+        try {
+            copy.setAmount(Math.multiplyExact(content.getAmount(), multiplier));
+        } catch (ArithmeticException e) {
+            return null;
+        }
+        return copy;
+    }
+
+    @Override
+    public Collection<?> getLookupKeys(FluidStack content) {
+        return content.isEmpty() ? null : Collections.singleton(content.getFluid());
+    }
 
     @Override
     public FluidCapabilityProxy createProxy(@Nonnull IO io, @Nonnull TileEntity tileEntity) {
@@ -164,13 +189,48 @@ public class FluidMultiblockCapability extends MultiblockCapability<FluidStack>
             return left.isEmpty() ? null : left;
         }
 
+        @Override
+        public boolean collectLookupKeys(Collection<Object> keys) {
+            IFluidHandler capability = getCapability(null);
+            if (capability == null) return true;
+            for (int i = 0; i < capability.getTanks(); i++) {
+                FluidStack stored = capability.getFluidInTank(i);
+                if (!stored.isEmpty()) {
+                    keys.add(stored.getFluid());
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean collectFingerprint(ContentFingerprint fingerprint) {
+            IFluidHandler capability = getCapability(null);
+            if (capability == null) return true;
+            for (int i = 0; i < capability.getTanks(); i++) {
+                FluidStack stored = capability.getFluidInTank(i);
+                if (stored.isEmpty()) {
+                    fingerprint.put(0);
+                } else {
+                    fingerprint.put(stored.getFluid()).put(stored.getAmount()).put(stored.getTag());
+                }
+            }
+            return true;
+        }
+
         FluidStack[] lastContents = new FluidStack[0];
         int[] lastCaps = new int[0];
+        long lastVersion;
 
         @Override
         protected boolean hasInnerChanged() {
             IFluidHandler capability = getCapability(null);
             if (capability == null) return false;
+            if (capability instanceof IVersionedContent) { // no need to snapshot contents of our own handlers
+                long version = ((IVersionedContent) capability).getContentVersion();
+                if (version == lastVersion) return false;
+                lastVersion = version;
+                return true;
+            }
             boolean same = true;
             if (capability.getTanks() == lastContents.length) {
                 for (int i = 0; i < capability.getTanks(); i++) {
@@ -46,6 +46,12 @@ public class HeatMekanismCapability extends MultiblockCapability<Double> {
         return content;
     }
 
+    @Override
+    public Double copyWithModifier(Double content, int multiplier) {
+        double result = content * multiplier;
+        return Double.isFinite(result) ? result : null;
+    }
+
     @Override
     public HeatMekanismCapabilityProxy createProxy(@Nonnull IO io, @Nonnull TileEntity tileEntity) {
         return new HeatMekanismCapabilityProxy(tileEntity);
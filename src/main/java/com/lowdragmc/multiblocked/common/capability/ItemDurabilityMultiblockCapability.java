@@ -49,6 +49,12 @@ public class ItemDurabilityMultiblockCapability extends MultiblockCapability<Ite
         return content.copy();
     }
 
+    @Override
+    public ItemsIngredient resetCopy(ItemsIngredient copy, ItemsIngredient content) {
+        copy.setAmount(content.getAmount());
+        return copy;
+    }
+
     @Override
     public ItemCapabilityProxy createProxy(@Nonnull IO io, @Nonnull TileEntity tileEntity) {
         return new ItemCapabilityProxy(tileEntity);
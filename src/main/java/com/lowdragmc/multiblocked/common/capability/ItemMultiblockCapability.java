@@ -8,17 +8,20 @@ import com.google.gson.JsonSerializationContext;
 import com.lowdragmc.lowdraglib.utils.BlockInfo;
 import com.lowdragmc.multiblocked.Multiblocked;
 import com.lowdragmc.multiblocked.api.capability.IO;
+import com.lowdragmc.multiblocked.api.capability.IVersionedContent;
 import com.lowdragmc.multiblocked.api.capability.MultiblockCapability;
 import com.lowdragmc.multiblocked.api.capability.proxy.CapCapabilityProxy;
 import com.lowdragmc.multiblocked.api.capability.trait.CapabilityTrait;
 import com.lowdragmc.multiblocked.api.gui.recipe.ContentWidget;
 import com.lowdragmc.multiblocked.api.kubejs.MultiblockedJSPlugin;
+import com.lowdragmc.multiblocked.api.recipe.ContentFingerprint;
 import com.lowdragmc.multiblocked.api.recipe.ItemsIngredient;
 import com.lowdragmc.multiblocked.api.recipe.Recipe;
 import com.lowdragmc.multiblocked.api.registry.MbdComponents;
 import com.lowdragmc.multiblocked.common.capability.trait.ItemCapabilityTrait;
 import com.lowdragmc.multiblocked.common.capability.widget.ItemsContentWidget;
 import net.minecraft.block.Blocks;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.Items;
 import net.minecraft.item.crafting.Ingredient;
@@ -30,8 +33,12 @@ import net.minecraftforge.items.IItemHandler;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 public class ItemMultiblockCapability extends MultiblockCapability<ItemsIngredient> {
     public static final ItemMultiblockCapability CAP = new ItemMultiblockCapability();
@@ -55,6 +62,37 @@ public class ItemMultiblockCapability extends MultiblockCapability<ItemsIngredie
         return content.copy();
     }
 
+    @Override
+    public ItemsIngredient resetCopy(ItemsIngredient copy, ItemsIngredient content) {
+        copy.setAmount(content.getAmount());
+        return copy;
+    }
+
+    @Override
+    public ItemsIngredient copyWithModifier(ItemsIngredient content, int multiplier) {
+        ItemsIngredient copy = content.copy();
+        try {
+            copy.setAmount(Math.multiplyExact(content.getAmount(), multiplier));
+        } catch (ArithmeticException e) {
+            return null;
+        }
+        return copy;
+    }
+
+    @Override
+    public Collection<?> getLookupKeys(ItemsIngredient content) {
+        if (content.isTag()) {
+            return Collections.singleton(new ResourceLocation(content.getTag().toLowerCase()));
+        }
+        ItemStack[] stacks = content.getIngredient().getItems();
+        if (stacks.length == 0) return null;
+        Set<Item> items = new HashSet<>();
+        for (ItemStack stack : stacks) {
+            items.add(stack.getItem());
+        }
+        return items;
+    }
+
     @Override
     public ItemCapabilityProxy createProxy(@Nonnull IO io, @Nonnull TileEntity tileEntity) {
         return new ItemCapabilityProxy(tileEntity);
@@ -158,13 +196,49 @@ public class ItemMultiblockCapability extends MultiblockCapability<ItemsIngredie
             return left.isEmpty() ? null : left;
         }
 
+        @Override
+        public boolean collectLookupKeys(Collection<Object> keys) {
+            IItemHandler capability = getCapability(null);
+            if (capability == null) return true;
+            for (int i = 0; i < capability.getSlots(); i++) {
+                ItemStack itemStack = capability.getStackInSlot(i);
+                if (!itemStack.isEmpty()) {
+                    keys.add(itemStack.getItem());
+                    keys.addAll(itemStack.getItem().getTags());
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean collectFingerprint(ContentFingerprint fingerprint) {
+            IItemHandler capability = getCapability(null);
+            if (capability == null) return true;
+            for (int i = 0; i < capability.getSlots(); i++) {
+                ItemStack itemStack = capability.getStackInSlot(i);
+                if (itemStack.isEmpty()) {
+                    fingerprint.put(0);
+                } else {
+                    fingerprint.put(itemStack.getItem()).put(itemStack.getCount()).put(itemStack.getTag());
+                }
+            }
+            return true;
+        }
+
         ItemStack[] lastStacks = new ItemStack[0];
         int[] limits = new int[0];
+        long lastVersion;
 
         @Override
         protected boolean hasInnerChanged() {
             IItemHandler capability = getCapability(null);
             if (capability == null) return false;
+            if (capability instanceof IVersionedContent) { // no need to snapshot contents of our own handlers
+                long version = ((IVersionedContent) capability).getContentVersion();
+                if (version == lastVersion) return false;
+                lastVersion = version;
+                return true;
+            }
             boolean same = true;
             if (lastStacks.length == capability.getSlots()) {
                 for (int i = 0; i < capability.getSlots(); i++) {
@@ -42,6 +42,15 @@ public class ManaBotaniaCapability extends MultiblockCapability<Integer> {
         return content;
     }
 
+    @Override
+    public Integer copyWithModifier(Integer content, int multiplier) {
+        try {
+            return Math.multiplyExact(content, multiplier);
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
     @Override
     public ManaBotainaCapabilityProxy createProxy(@Nonnull IO io, @Nonnull TileEntity tileEntity) {
         return new ManaBotainaCapabilityProxy(tileEntity);
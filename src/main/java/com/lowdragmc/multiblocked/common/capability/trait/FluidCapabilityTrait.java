@@ -10,6 +10,7 @@ import com.lowdragmc.lowdraglib.utils.Position;
 import com.lowdragmc.lowdraglib.utils.Size;
 import com.lowdragmc.multiblocked.Multiblocked;
 import com.lowdragmc.multiblocked.api.capability.IO;
+import com.lowdragmc.multiblocked.api.capability.IVersionedContent;
 import com.lowdragmc.multiblocked.api.capability.trait.MultiCapabilityTrait;
 import com.lowdragmc.multiblocked.api.gui.GuiUtils;
 import com.lowdragmc.multiblocked.api.gui.dialogs.ResourceTextureWidget;
@@ -44,6 +45,7 @@ public class FluidCapabilityTrait extends MultiCapabilityTrait {
     private static final String EMPTY_TEX = "multiblocked:textures/void.png";
     private FluidTankList handler;
     private int[] tankCapability;
+    private volatile long version = IVersionedContent.nextVersion();
 
     private FluidStack[][] validFluids;
     protected int[] width;
@@ -85,7 +87,21 @@ public class FluidCapabilityTrait extends MultiCapabilityTrait {
             }
             i++;
         }
-        FluidTank[] fluidTanks = Arrays.stream(tankCapability).mapToObj(FluidTank::new).toArray(FluidTank[]::new);
+        FluidTank[] fluidTanks = new FluidTank[size];
+        for (int j = 0; j < fluidTanks.length; j++) {
+            fluidTanks[j] = new FluidTank(tankCapability[j]) {
+                @Override
+                protected void onContentsChanged() {
+                    version = IVersionedContent.nextVersion();
+                }
+
+                @Override
+                public void setFluid(FluidStack stack) {
+                    super.setFluid(stack);
+                    version = IVersionedContent.nextVersion();
+                }
+            };
+        }
         for (int j = 0; j < fluidTanks.length; j++) {
             if (validFluids[j] != null) {
                 final FluidStack[] fluids = validFluids[j];
@@ -311,6 +327,7 @@ public class FluidCapabilityTrait extends MultiCapabilityTrait {
     public void readFromNBT(CompoundNBT compound) {
         super.readFromNBT(compound);
         handler.deserializeNBT(compound.getCompound("_"));
+        version = IVersionedContent.nextVersion();
     }
 
     @Override
@@ -418,7 +435,7 @@ public class FluidCapabilityTrait extends MultiCapabilityTrait {
         }
     }
 
-    public class FluidTankList implements IFluidHandler, INBTSerializable<CompoundNBT> {
+    public class FluidTankList implements IFluidHandler, INBTSerializable<CompoundNBT>, IVersionedContent {
         public IO[] cIOs;
         protected final List<FluidTank> fluidTanks;
         public String[] slotNames;
@@ -435,6 +452,11 @@ public class FluidCapabilityTrait extends MultiCapabilityTrait {
             return fluidTanks.size();
         }
 
+        @Override
+        public long getContentVersion() {
+            return version;
+        }
+
         public FluidTank getTankAt(int index) {
             return fluidTanks.get(index);
         }
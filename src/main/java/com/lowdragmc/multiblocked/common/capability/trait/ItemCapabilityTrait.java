@@ -9,6 +9,7 @@ import com.lowdragmc.lowdraglib.gui.widget.SlotWidget;
 import com.lowdragmc.lowdraglib.gui.widget.WidgetGroup;
 import com.lowdragmc.multiblocked.Multiblocked;
 import com.lowdragmc.multiblocked.api.capability.IO;
+import com.lowdragmc.multiblocked.api.capability.IVersionedContent;
 import com.lowdragmc.multiblocked.api.capability.trait.MultiCapabilityTrait;
 import com.lowdragmc.multiblocked.api.gui.GuiUtils;
 import com.lowdragmc.multiblocked.api.tile.ComponentTileEntity;
@@ -37,6 +38,7 @@ import java.util.stream.Collectors;
 public class ItemCapabilityTrait extends MultiCapabilityTrait {
     private ItemStackHandler handler;
     private ItemStack[][] validItems;
+    private volatile long version = IVersionedContent.nextVersion();
     public ItemCapabilityTrait() {
         super(ItemMultiblockCapability.CAP);
     }
@@ -72,6 +74,11 @@ public class ItemCapabilityTrait extends MultiCapabilityTrait {
                 }
                 return super.isItemValid(slot, stack);
             }
+
+            @Override
+            protected void onContentsChanged(int slot) {
+                version = IVersionedContent.nextVersion();
+            }
         };
     }
 
@@ -125,7 +132,9 @@ public class ItemCapabilityTrait extends MultiCapabilityTrait {
         super.createUI(component, group, player);
         if (handler != null) {
             for (int i = 0; i < handler.getSlots(); i++) {
-                group.addWidget(new SlotWidget(new ProxyItemHandler(handler, guiIO, this.slotName, null), i, x[i], y[i], true, true));
+                // slots grow or shrink the stack in place when merging, which doesn't notify the handler.
+                group.addWidget(new SlotWidget(new ProxyItemHandler(handler, guiIO, this.slotName, null), i, x[i], y[i], true, true)
+                        .setChangeListener(() -> version = IVersionedContent.nextVersion()));
             }
         }
     }
@@ -227,7 +236,7 @@ public class ItemCapabilityTrait extends MultiCapabilityTrait {
         return CapabilityItemHandler.ITEM_HANDLER_CAPABILITY.orEmpty(capability, LazyOptional.of(() -> new ProxyItemHandler(handler, getRealMbdIO(), this.slotName, slotName)));
     }
 
-    private class ProxyItemHandler implements IItemHandler, IItemHandlerModifiable {
+    private class ProxyItemHandler implements IItemHandler, IItemHandlerModifiable, IVersionedContent {
         public ItemStackHandler proxy;
         public IO[] ios;
         public String[] slotNames;
@@ -293,6 +302,11 @@ public class ItemCapabilityTrait extends MultiCapabilityTrait {
         public void setStackInSlot(int slot, @Nonnull ItemStack stack) {
             proxy.setStackInSlot(slot, stack);
         }
+
+        @Override
+        public long getContentVersion() {
+            return version;
+        }
     }
 
 }
@@ -47,8 +47,9 @@ public class BlockCondition extends RecipeCondition {
     @Override
     public boolean test(@Nonnull Recipe recipe, @Nonnull RecipeLogic recipeLogic) {
         int amount = 0;
-        for (BlockPos pos : recipeLogic.controller.state.getCache()) {
-            if (recipeLogic.controller.getLevel().getBlockState(pos) == blockState) {
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        for (long posLong : recipeLogic.controller.state.cache) {
+            if (recipeLogic.controller.getLevel().getBlockState(pos.set(posLong)) == blockState) {
                 amount++;
                 if (amount >= count) break;
             }
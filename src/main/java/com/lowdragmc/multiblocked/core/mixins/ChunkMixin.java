@@ -1,9 +1,10 @@
 package com.lowdragmc.multiblocked.core.mixins;
 
-import com.lowdragmc.multiblocked.api.pattern.MultiblockState;
+import com.lowdragmc.multiblocked.persistence.IChunkStamp;
 import com.lowdragmc.multiblocked.persistence.MultiblockWorldSavedData;
 import net.minecraft.block.BlockState;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
@@ -12,28 +13,45 @@ import org.objectweb.asm.Opcodes;
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
 @Mixin(Chunk.class)
-public class ChunkMixin {
+public class ChunkMixin implements IChunkStamp {
     @Final @Shadow private World level;
     @Final @Shadow private ChunkPos chunkPos;
-    
+    @Unique private volatile long mbdStamp = IChunkStamp.nextStamp();
+
     // We want to be as quick as possible here
     @Inject(method = "setBlockState", at = @At(value = "FIELD", opcode = Opcodes.GETFIELD, target = "Lnet/minecraft/world/World;captureBlockSnapshots:Z", remap = false))
     private void onAddingBlock(BlockPos pos, BlockState state, boolean isMoving, CallbackInfoReturnable<BlockState> cir) {
+        mbdStamp = IChunkStamp.nextStamp();
         MinecraftServer server = level.getServer();
         if (server != null) {
-            server.executeBlocking(() -> {
-                for (MultiblockState structure : MultiblockWorldSavedData.getOrCreate(level).getControllerInChunk(chunkPos)) {
-                    if (structure.isPosInCache(pos)) {
-                        structure.onBlockStateChanged(pos);
-                    }
-                }
-            });
+            if (server.isSameThread()) {
+                MultiblockWorldSavedData.getOrCreate(level).onBlockChanged(chunkPos, pos);
+            } else {
+                BlockPos changed = pos.immutable();
+                server.execute(() -> MultiblockWorldSavedData.getOrCreate(level).onBlockChanged(chunkPos, changed));
+            }
         }
     }
 
+    @Inject(method = "setBlockEntity", at = @At(value = "HEAD"))
+    private void onSetBlockEntity(BlockPos pos, TileEntity tileEntity, CallbackInfo ci) {
+        mbdStamp = IChunkStamp.nextStamp();
+    }
+
+    @Inject(method = "removeBlockEntity", at = @At(value = "HEAD"))
+    private void onRemoveBlockEntity(BlockPos pos, CallbackInfo ci) {
+        mbdStamp = IChunkStamp.nextStamp();
+    }
+
+    @Override
+    public long getMbdStamp() {
+        return mbdStamp;
+    }
 }
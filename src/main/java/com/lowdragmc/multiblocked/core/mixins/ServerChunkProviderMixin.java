@@ -1,5 +1,6 @@
 package com.lowdragmc.multiblocked.core.mixins;
 
+import com.lowdragmc.multiblocked.persistence.AsyncChunkCache;
 import com.lowdragmc.multiblocked.persistence.MultiblockWorldSavedData;
 import com.mojang.datafixers.util.Either;
 import net.minecraft.util.math.ChunkPos;
@@ -18,7 +19,6 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
 import javax.annotation.Nullable;
-import java.util.Arrays;
 
 @Mixin(ServerChunkProvider.class)
 public abstract class ServerChunkProviderMixin {
@@ -29,40 +29,24 @@ public abstract class ServerChunkProviderMixin {
 
     @Shadow @Nullable protected abstract ChunkHolder getVisibleChunkIfPresent(long p_217213_1_);
 
-    private final long[] mbdLastChunkPos = new long[4];
+    private final ThreadLocal<AsyncChunkCache> mbdChunkCache = ThreadLocal.withInitial(AsyncChunkCache::new);
 
-    private final Chunk[] mbdLastChunk = new Chunk[4];
+    private volatile int mbdCacheVersion;
 
     @Inject(method = "clearCache", at = @At(value = "TAIL"))
     private void injectClearCache(CallbackInfo ci) {
-        synchronized (this.mbdLastChunkPos) {
-            Arrays.fill(this.mbdLastChunkPos, ChunkPos.INVALID_CHUNK_POS);
-            Arrays.fill(this.mbdLastChunk, null);
-        }
-    }
-
-    private void storeInCache(long pos, Chunk chunkAccess) {
-        synchronized (this.mbdLastChunkPos) {
-            for(int i = 3; i > 0; --i) {
-                this.mbdLastChunkPos[i] = this.mbdLastChunkPos[i - 1];
-                this.mbdLastChunk[i] = this.mbdLastChunk[i - 1];
-            }
-
-            this.mbdLastChunkPos[0] = pos;
-            this.mbdLastChunk[0] = chunkAccess;
-        }
+        mbdCacheVersion++;
     }
 
     @Inject(method = "getChunkNow", at = @At(value = "HEAD"), cancellable = true)
     private void getTileEntity(int pChunkX, int pChunkZ, CallbackInfoReturnable<Chunk> cir) {
         if (Thread.currentThread() != this.mainThread && MultiblockWorldSavedData.isThreadService()) {
             long i = ChunkPos.asLong(pChunkX, pChunkZ);
-
-            for(int j = 0; j < 4; ++j) {
-                if (i == this.mbdLastChunkPos[j]) {
-                    cir.setReturnValue(this.mbdLastChunk[j]);
-                    return;
-                }
+            AsyncChunkCache cache = mbdChunkCache.get();
+            Chunk cached = cache.get(i, mbdCacheVersion);
+            if (cached != null) {
+                cir.setReturnValue(cached);
+                return;
             }
 
             ChunkHolder chunkholder = this.getVisibleChunkIfPresent(i);
@@ -72,7 +56,7 @@ public abstract class ServerChunkProviderMixin {
                     IChunk ichunk1 = either.left().orElse(null);
                     if (ichunk1 != null) {
                         if (ichunk1 instanceof Chunk) {
-                            storeInCache(i, (Chunk) ichunk1);
+                            cache.put(i, (Chunk) ichunk1);
                             cir.setReturnValue((Chunk)ichunk1);
                             return;
                         }
@@ -0,0 +1,35 @@
+package com.lowdragmc.multiblocked.core.mixins;
+
+import com.lowdragmc.multiblocked.persistence.ITileNbtCache;
+import net.minecraft.block.BlockState;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.tileentity.TileEntity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(TileEntity.class)
+public abstract class TileEntityMixin implements ITileNbtCache {
+    @Unique private volatile String mbdNbtString;
+
+    @Inject(method = "setChanged", at = @At(value = "HEAD"))
+    private void onChanged(CallbackInfo ci) {
+        mbdNbtString = null;
+    }
+
+    @Inject(method = "load", at = @At(value = "HEAD"))
+    private void onLoad(BlockState state, CompoundNBT nbt, CallbackInfo ci) {
+        mbdNbtString = null;
+    }
+
+    @Override
+    public String getMbdNbtString() {
+        String nbt = mbdNbtString;
+        if (nbt == null) {
+            mbdNbtString = nbt = ((TileEntity) (Object) this).serializeNBT().toString();
+        }
+        return nbt;
+    }
+}
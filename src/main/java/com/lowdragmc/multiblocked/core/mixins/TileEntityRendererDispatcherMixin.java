@@ -19,7 +19,7 @@ public class TileEntityRendererDispatcherMixin {
     @Inject(method = "getRenderer", at = @At(value = "HEAD"), cancellable = true)
     private <T extends TileEntity> void injectGetRenderer(T tileEntity, CallbackInfoReturnable<TileEntityRenderer<T>> cir) {
         if (tileEntity != null) {
-            if (tileEntity.getLevel() == Minecraft.getInstance().level && MultiblockWorldSavedData.modelDisabled.contains(tileEntity.getBlockPos())) {
+            if (tileEntity.getLevel() == Minecraft.getInstance().level && MultiblockWorldSavedData.modelDisabled.contains(tileEntity.getBlockPos().asLong())) {
                 cir.setReturnValue(null);
             }
         }
@@ -1,6 +1,5 @@
 package com.lowdragmc.multiblocked.core.mixins;
 
-import com.lowdragmc.multiblocked.api.tile.ComponentTileEntity;
 import com.lowdragmc.multiblocked.persistence.MultiblockWorldSavedData;
 import net.minecraft.block.BlockState;
 import net.minecraft.profiler.IProfiler;
@@ -9,6 +8,7 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.IWorld;
 import net.minecraft.world.World;
 import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.server.ServerWorld;
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
@@ -18,9 +18,6 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 import org.spongepowered.asm.mixin.injection.callback.LocalCapture;
 
-import java.util.ArrayList;
-import java.util.List;
-
 @Mixin(World.class)
 public abstract class WorldMixin implements IWorld {
 
@@ -35,23 +32,10 @@ public abstract class WorldMixin implements IWorld {
     private void afterUpdatingEntities(CallbackInfo ci, IProfiler iprofiler) {
         iprofiler.popPush("multiblocked_update");
         if (!((World) (Object) this).isClientSide) {
-            List<ComponentTileEntity<?>> isRemoved = null;
             MultiblockWorldSavedData mbds = MultiblockWorldSavedData.getOrCreate((World) (Object) this);
-            for (ComponentTileEntity<?> loading : mbds.getLoadings()) {
-                if (loading.isRemoved()) {
-                    if (isRemoved == null) {
-                        isRemoved = new ArrayList<>();
-                    }
-                    isRemoved.add(loading);
-                } else {
-                    loading.update();
-                }
-            }
-            if (isRemoved != null) {
-                for (ComponentTileEntity<?> inValid : isRemoved) {
-                    mbds.removeLoading(inValid.getBlockPos());
-                }
-            }
+            mbds.drainChangedBlocks();
+            mbds.updateLoadings(iprofiler);
+            mbds.sendRenderMaskRemovals((ServerWorld) (Object) this);
         }
     }
 
@@ -26,7 +26,7 @@ public class BlockOcclusionCacheMixin {
                                        CallbackInfoReturnable<Boolean> cir) {
         if (state.getBlock() instanceof BlockComponent && !state.canOcclude()) {
             cir.setReturnValue(true);
-        } else if (MultiblockWorldSavedData.isModelDisabled(pos.relative(facing))) {
+        } else if (MultiblockWorldSavedData.isModelDisabled(pos, facing)) {
             cir.setReturnValue(true);
         }
     }
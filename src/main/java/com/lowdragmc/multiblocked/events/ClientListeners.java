@@ -26,4 +26,12 @@ public class ClientListeners {
             MultiblockWorldSavedData.clearDisabled();
         }
     }
+
+    @SubscribeEvent
+    public static void onChunkUnload(ChunkEvent.Unload event) {
+        IWorld world = event.getWorld();
+        if (world != null && world.isClientSide()) {
+            MultiblockWorldSavedData.removeDisableModels(event.getChunk().getPos());
+        }
+    }
 }
@@ -5,6 +5,7 @@ import com.lowdragmc.multiblocked.api.capability.MultiblockCapability;
 import com.lowdragmc.multiblocked.api.definition.ControllerDefinition;
 import com.lowdragmc.multiblocked.api.pattern.BlockPattern;
 import com.lowdragmc.multiblocked.api.pattern.MultiblockState;
+import com.lowdragmc.multiblocked.api.recipe.RecipeMap;
 import com.lowdragmc.multiblocked.api.registry.MbdComponents;
 import com.lowdragmc.multiblocked.api.tile.ControllerTileEntity;
 import com.lowdragmc.multiblocked.persistence.MultiblockWorldSavedData;
@@ -19,6 +20,7 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.IWorld;
 import net.minecraft.world.World;
 import net.minecraft.world.server.ServerWorld;
+import net.minecraftforge.event.TagsUpdatedEvent;
 import net.minecraftforge.event.entity.player.PlayerInteractEvent;
 import net.minecraftforge.event.world.ChunkEvent;
 import net.minecraftforge.event.world.WorldEvent;
@@ -50,7 +52,7 @@ public class CommonListeners {
         IWorld world = event.getWorld();
         if (!world.isClientSide() && world instanceof ServerWorld) {
             MultiblockWorldSavedData.getOrCreate((World) world)
-                    .getControllerInChunk(event.getChunk().getPos())
+                    .getStructuresInChunk(event.getChunk().getPos().toLong())
                     .forEach(MultiblockState::onChunkUnload);
         }
     }
@@ -63,6 +65,11 @@ public class CommonListeners {
         }
     }
 
+    @SubscribeEvent
+    public static void onTagsUpdated(TagsUpdatedEvent.VanillaTagTypes event) {
+        RecipeMap.RECIPE_MAP_REGISTRY.values().forEach(RecipeMap::rebuildIndex);
+    }
+
     @SubscribeEvent
     public static void onRightClickBlock(PlayerInteractEvent.RightClickBlock event) {
         World level = event.getWorld();
@@ -80,17 +87,18 @@ public class CommonListeners {
                 facings = new Direction[]{face};
             }
 
+            BlockState oldState = level.getBlockState(pos);
+            TileEntity oldBlockEntity = level.getBlockEntity(pos);
+            if (oldBlockEntity instanceof ControllerTileEntity) {
+                return;
+            }
+
             for (ControllerDefinition definition : definitions) {
                 BlockPattern pattern = definition.getBasePattern();
-                if (pattern != null && definition.noNeedController) {
+                if (pattern != null && definition.noNeedController && pattern.canBeCenter(oldState, definition.location)) {
                     Set<MultiblockCapability<?>> inputCapabilities = definition.getRecipeMap().inputCapabilities;
                     Set<MultiblockCapability<?>> outputCapabilities = definition.getRecipeMap().outputCapabilities;
                     MultiblockState worldState = new MultiblockState(level, pos);
-                    BlockState oldState = level.getBlockState(pos);
-                    TileEntity oldBlockEntity = level.getBlockEntity(pos);
-                    if (oldBlockEntity instanceof ControllerTileEntity) {
-                        return;
-                    }
                     for (Direction facing : facings) {
                         if (pattern.checkPatternAt(worldState, pos, facing, false, inputCapabilities, outputCapabilities)) {
                             CompoundNBT oldNbt = null;
@@ -8,30 +8,45 @@ import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
 import net.minecraftforge.fml.network.NetworkEvent;
 
+/**
+ * Remove the render masks of structures, all removals of a tick are sent in one packet.
+ */
 public class SPacketRemoveDisabledRendering implements IPacket {
-    private BlockPos controllerPos;
+    private long[] controllers;
 
     public SPacketRemoveDisabledRendering() {
     }
 
     public SPacketRemoveDisabledRendering(BlockPos controllerPos) {
-        this.controllerPos = controllerPos;
+        this(new long[]{controllerPos.asLong()});
+    }
+
+    public SPacketRemoveDisabledRendering(long[] controllers) {
+        this.controllers = controllers;
     }
 
     @Override
     public void encode(PacketBuffer buf) {
-        buf.writeVarLong(controllerPos.asLong());
+        buf.writeVarInt(controllers.length);
+        for (long controller : controllers) {
+            buf.writeVarLong(controller);
+        }
     }
 
     @Override
     public void decode(PacketBuffer buf) {
-        this.controllerPos = BlockPos.of(buf.readVarLong());
+        this.controllers = new long[buf.readVarInt()];
+        for (int i = 0; i < controllers.length; i++) {
+            controllers[i] = buf.readVarLong();
+        }
     }
 
     @Override
     @OnlyIn(Dist.CLIENT)
     public void execute(NetworkEvent.Context handler) {
-        MultiblockWorldSavedData.removeDisableModel(controllerPos);
+        for (long controller : controllers) {
+            MultiblockWorldSavedData.removeDisableModel(BlockPos.of(controller));
+        }
     }
 
 }
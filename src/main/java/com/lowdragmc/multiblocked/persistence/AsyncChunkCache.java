@@ -0,0 +1,41 @@
+package com.lowdragmc.multiblocked.persistence;
+
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.chunk.Chunk;
+
+import java.util.Arrays;
+
+/**
+ * A small chunk cache owned by one async thread. see {@link com.lowdragmc.multiblocked.core.mixins.ServerChunkProviderMixin}.
+ * <br>
+ * It's invalidated by a version bumped when the chunk provider clears its cache, so threads never share or lock it.
+ */
+public class AsyncChunkCache {
+    private final long[] lastChunkPos = new long[4];
+    private final Chunk[] lastChunk = new Chunk[4];
+    private int version = -1;
+
+    public Chunk get(long pos, int version) {
+        if (this.version != version) {
+            this.version = version;
+            Arrays.fill(lastChunkPos, ChunkPos.INVALID_CHUNK_POS);
+            Arrays.fill(lastChunk, null);
+            return null;
+        }
+        for (int i = 0; i < 4; ++i) {
+            if (pos == lastChunkPos[i]) {
+                return lastChunk[i];
+            }
+        }
+        return null;
+    }
+
+    public void put(long pos, Chunk chunk) {
+        for (int i = 3; i > 0; --i) {
+            lastChunkPos[i] = lastChunkPos[i - 1];
+            lastChunk[i] = lastChunk[i - 1];
+        }
+        lastChunkPos[0] = pos;
+        lastChunk[0] = chunk;
+    }
+}
@@ -0,0 +1,20 @@
+package com.lowdragmc.multiblocked.persistence;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Implemented by all chunks via mixin. The stamp changes whenever a block or tile entity of the chunk is changed,
+ * so that the result of an async scan can be verified without reading the blocks again.
+ */
+public interface IChunkStamp {
+    AtomicLong STAMPS = new AtomicLong();
+
+    /**
+     * A new stamp, unique among all chunks. So a reloaded chunk never has the stamp of the unloaded one.
+     */
+    static long nextStamp() {
+        return STAMPS.incrementAndGet();
+    }
+
+    long getMbdStamp();
+}
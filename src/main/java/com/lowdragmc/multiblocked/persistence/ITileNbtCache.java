@@ -0,0 +1,12 @@
+package com.lowdragmc.multiblocked.persistence;
+
+/**
+ * Implemented by all tile entities via mixin. The stringified NBT of a tile entity is cached until it's changed or loaded.
+ */
+public interface ITileNbtCache {
+
+    /**
+     * @return {@code serializeNBT().toString()} of this tile entity, cached until {@code setChanged} is called.
+     */
+    String getMbdNbtString();
+}
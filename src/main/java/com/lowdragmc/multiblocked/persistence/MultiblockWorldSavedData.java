@@ -2,17 +2,37 @@ package com.lowdragmc.multiblocked.persistence;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.lowdragmc.lowdraglib.utils.DummyWorld;
+import com.lowdragmc.multiblocked.MbdConfig;
 import com.lowdragmc.multiblocked.Multiblocked;
 import com.lowdragmc.multiblocked.api.pattern.MultiblockState;
 import com.lowdragmc.multiblocked.api.tile.ComponentTileEntity;
+import com.lowdragmc.multiblocked.network.MultiblockedNetworking;
+import com.lowdragmc.multiblocked.network.s2c.SPacketRemoveDisabledRendering;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMaps;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2ObjectLinkedOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 import net.minecraft.block.BlockState;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.world.ClientWorld;
+import net.minecraft.entity.player.ServerPlayerEntity;
 import net.minecraft.nbt.CompoundNBT;
 import net.minecraft.network.PacketBuffer;
+import net.minecraft.profiler.IProfiler;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.Direction;
+import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
@@ -28,11 +48,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
@@ -57,16 +78,13 @@ public class MultiblockWorldSavedData extends WorldSavedData {
     };
 
     @OnlyIn(Dist.CLIENT)
-    public static Set<BlockPos> modelDisabled;
-    @OnlyIn(Dist.CLIENT)
-    public static Map<BlockPos, Collection<BlockPos>> multiDisabled;
+    public static RenderMaskStore modelDisabled;
 
     public final static ThreadLocal<Boolean> isBuildingChunk = ThreadLocal.withInitial(()-> Boolean.FALSE);
 
     static {
         if (Multiblocked.isClient()) {
-            modelDisabled = new HashSet<>();
-            multiDisabled = new HashMap<>();
+            modelDisabled = new RenderMaskStore();
         }
     }
 
@@ -86,23 +104,45 @@ public class MultiblockWorldSavedData extends WorldSavedData {
     }
 
     public final Map<BlockPos, MultiblockState> mapping;
-    public final Map<ChunkPos, Set<MultiblockState>> chunkPosMapping;
+    public final Long2ObjectOpenHashMap<StructureChunk> chunkPosMapping; // key: ChunkPos#toLong
     public final Map<BlockPos, ComponentTileEntity<?>> loading;
+    // positions of each structure when it was mapped, its cache may have changed since then.
+    private final Map<MultiblockState, LongSet> mappedPositions;
 
     public MultiblockWorldSavedData(String name) { // Also constructed Reflectively by MapStorage
         super(name);
         this.mapping = new Object2ObjectOpenHashMap<>();
-        this.chunkPosMapping = new HashMap<>();
+        this.chunkPosMapping = new Long2ObjectOpenHashMap<>();
         this.loading = new Object2ObjectOpenHashMap<>();
+        this.mappedPositions = new Reference2ObjectOpenHashMap<>();
     }
 
     public static void clearDisabled() {
         modelDisabled.clear();
-        multiDisabled.clear();
     }
 
+    /**
+     * A copy of the structures in the chunk, so the mapping can be modified while iterating.
+     */
     public Collection<MultiblockState> getControllerInChunk(ChunkPos chunkPos) {
-        return new ArrayList<>(chunkPosMapping.getOrDefault(chunkPos, Collections.emptySet()));
+        StructureChunk chunk = chunkPosMapping.get(chunkPos.toLong());
+        return chunk == null ? Collections.emptyList() : new ArrayList<>(chunk.structures);
+    }
+
+    /**
+     * The structures in the chunk without copying, the mapping must not be modified while iterating.
+     */
+    public Set<MultiblockState> getStructuresInChunk(long chunkPos) {
+        StructureChunk chunk = chunkPosMapping.get(chunkPos);
+        return chunk == null ? Collections.emptySet() : chunk.structures;
+    }
+
+    /**
+     * Whether the position is a block of any mapped structure.
+     */
+    public boolean isInAnyStructure(long pos) {
+        StructureChunk chunk = chunkPosMapping.get(ChunkPos.asLong(BlockPos.getX(pos) >> 4, BlockPos.getZ(pos) >> 4));
+        return chunk != null && chunk.isMember(pos);
     }
 
     public Collection<ComponentTileEntity<?>> getLoadings() {
@@ -110,26 +150,54 @@ public class MultiblockWorldSavedData extends WorldSavedData {
     }
 
     public void addMapping(MultiblockState state) {
-        this.mapping.put(state.controllerPos, state);
-        for (BlockPos blockPos : state.getCache()) {
-            chunkPosMapping.computeIfAbsent(new ChunkPos(blockPos), c->new HashSet<>()).add(state);
+        MultiblockState last = this.mapping.put(state.controllerPos, state);
+        if (last != null) {
+            unmapPositions(last);
         }
+        mapPositions(state);
         setDirty(true);
     }
 
     public void removeMapping(MultiblockState state) {
         this.mapping.remove(state.controllerPos);
-        for (Set<MultiblockState> set : chunkPosMapping.values()) {
-            set.remove(state);
-        }
+        unmapPositions(state);
         setDirty(true);
     }
 
+    private void mapPositions(MultiblockState state) {
+        LongSet positions = new LongOpenHashSet(state.cache);
+        mappedPositions.put(state, positions);
+        for (long pos : positions) {
+            long chunkPos = ChunkPos.asLong(BlockPos.getX(pos) >> 4, BlockPos.getZ(pos) >> 4);
+            StructureChunk chunk = chunkPosMapping.get(chunkPos);
+            if (chunk == null) {
+                chunkPosMapping.put(chunkPos, chunk = new StructureChunk());
+            }
+            chunk.add(state, pos);
+        }
+    }
+
+    private void unmapPositions(MultiblockState state) {
+        LongSet positions = mappedPositions.remove(state);
+        if (positions == null) return;
+        for (long pos : positions) {
+            long chunkPos = ChunkPos.asLong(BlockPos.getX(pos) >> 4, BlockPos.getZ(pos) >> 4);
+            StructureChunk chunk = chunkPosMapping.get(chunkPos);
+            if (chunk != null) {
+                chunk.remove(state, pos);
+                if (chunk.isEmpty()) {
+                    chunkPosMapping.remove(chunkPos);
+                }
+            }
+        }
+    }
+
     public void addLoading(ComponentTileEntity<?> tileEntity) {
         ComponentTileEntity<?> last = loading.put(tileEntity.getBlockPos(), tileEntity);
         if (last != tileEntity) {
             if (last instanceof IAsyncThreadUpdate) {
                 asyncComponents.remove(last);
+                shardsDirty = true;
                 if (asyncComponents.isEmpty()) {
                     releaseExecutorService();
                 }
@@ -145,6 +213,7 @@ public class MultiblockWorldSavedData extends WorldSavedData {
         ComponentTileEntity<?> component = loading.remove(componentPos);
         if (component instanceof IAsyncThreadUpdate) {
             asyncComponents.remove(component);
+            shardsDirty = true;
             if (asyncComponents.isEmpty()) {
                 releaseExecutorService();
             }
@@ -153,18 +222,29 @@ public class MultiblockWorldSavedData extends WorldSavedData {
 
      @OnlyIn(Dist.CLIENT)
     public static void removeDisableModel(BlockPos controllerPos) {
-        Collection<BlockPos> poses = multiDisabled.remove(controllerPos);
+        long[] poses = modelDisabled.remove(controllerPos);
         if (poses == null) return;
-        modelDisabled.clear();
-        multiDisabled.values().forEach(modelDisabled::addAll);
         updateRenderChunk(poses);
     }
 
+    /**
+     * Drop the masks of the controllers in an unloaded chunk, their removal won't be sent while the chunk isn't tracked.
+     */
      @OnlyIn(Dist.CLIENT)
-    private static void updateRenderChunk(Collection<BlockPos> poses) {
+    public static void removeDisableModels(ChunkPos chunkPos) {
+        if (modelDisabled.isEmpty()) return;
+        for (BlockPos controllerPos : modelDisabled.getControllers(chunkPos)) {
+            removeDisableModel(controllerPos);
+        }
+    }
+
+     @OnlyIn(Dist.CLIENT)
+    private static void updateRenderChunk(long[] poses) {
          ClientWorld world = Minecraft.getInstance().level;
         if (world != null) {
-            for (BlockPos pos : poses) {
+            BlockPos.Mutable pos = new BlockPos.Mutable();
+            for (long poseLong : poses) {
+                pos.set(poseLong);
                 BlockState state = world.getBlockState(pos);
                 world.sendBlockUpdated(pos, state, state, Constants.BlockFlags.RERENDER_MAIN_THREAD);
             }
@@ -172,20 +252,30 @@ public class MultiblockWorldSavedData extends WorldSavedData {
     }
 
      @OnlyIn(Dist.CLIENT)
-    public static void addDisableModel(BlockPos controllerPos, Collection<BlockPos> poses) {
-        multiDisabled.put(controllerPos, poses);
-        modelDisabled.addAll(poses);
+    public static void addDisableModel(BlockPos controllerPos, long[] poses) {
+        modelDisabled.add(controllerPos, poses);
         updateRenderChunk(poses);
     }
 
      @OnlyIn(Dist.CLIENT)
     public static boolean isModelDisabled(BlockPos pos) {
-        if (isBuildingChunk.get()) {
+        if (!modelDisabled.isEmpty() && isBuildingChunk.get()) {
             return modelDisabled.contains(pos);
         }
         return false;
     }
 
+    /**
+     * Whether the model of the neighbour at the given side is disabled, without allocating its position.
+     */
+     @OnlyIn(Dist.CLIENT)
+    public static boolean isModelDisabled(BlockPos pos, Direction facing) {
+        if (!modelDisabled.isEmpty() && isBuildingChunk.get()) {
+            return modelDisabled.contains(pos, facing);
+        }
+        return false;
+    }
+
     @Override
     public void load(CompoundNBT nbt) {
         for (String key : nbt.getAllKeys()) {
@@ -193,9 +283,7 @@ public class MultiblockWorldSavedData extends WorldSavedData {
             MultiblockState state = new MultiblockState(worldRef.get(), pos);
             state.deserialize(new PacketBuffer(Unpooled.copiedBuffer(nbt.getByteArray(key))));
             this.mapping.put(pos, state);
-            for (BlockPos blockPos : state.getCache()) {
-                chunkPosMapping.computeIfAbsent(new ChunkPos(blockPos), c->new HashSet<>()).add(state);
-            }
+            mapPositions(state);
         }
     }
 
@@ -210,33 +298,246 @@ public class MultiblockWorldSavedData extends WorldSavedData {
         return compound;
     }
 
+    // ********************************* block changes ********************************* //
+    private final LongArrayFIFOQueue changedBlocks = new LongArrayFIFOQueue();
+
+    /**
+     * Called when a block is changed, server thread only. The position is queued if it's a block of any structure,
+     * queued positions will be handled by {@link #drainChangedBlocks()} once per tick.
+     */
+    public void onBlockChanged(ChunkPos chunkPos, BlockPos pos) {
+        StructureChunk chunk = chunkPosMapping.get(chunkPos.toLong());
+        if (chunk != null) {
+            long posLong = pos.asLong();
+            if (chunk.isMember(posLong)) {
+                changedBlocks.enqueue(posLong);
+            }
+        }
+    }
+
+    /**
+     * Handle all queued block changes. Each affected structure is notified only once per tick.
+     */
+    public void drainChangedBlocks() {
+        if (changedBlocks.isEmpty()) return;
+        Map<MultiblockState, LongSet> changed = new Object2ObjectLinkedOpenHashMap<>();
+        while (!changedBlocks.isEmpty()) {
+            long pos = changedBlocks.dequeueLong();
+            for (MultiblockState structure : getStructuresInChunk(ChunkPos.asLong(BlockPos.getX(pos) >> 4, BlockPos.getZ(pos) >> 4))) {
+                if (structure.isPosInCache(pos)) {
+                    changed.computeIfAbsent(structure, s -> new LongOpenHashSet()).add(pos);
+                }
+            }
+        }
+        changed.forEach(MultiblockState::onBlockStatesChanged);
+    }
+
+    // ********************************* render masks ********************************* //
+    private final LongSet removedRenderMasks = new LongOpenHashSet();
+
+    /**
+     * Queue the render mask of a structure to be removed on clients, sent by {@link #sendRenderMaskRemovals(ServerWorld)} once per tick.
+     */
+    public void removeRenderMask(BlockPos controllerPos) {
+        removedRenderMasks.add(controllerPos.asLong());
+    }
+
+    /**
+     * Send the queued removals to the players tracking the chunks of their controllers, one packet per player.
+     */
+    public void sendRenderMaskRemovals(ServerWorld world) {
+        if (removedRenderMasks.isEmpty()) return;
+        Map<ServerPlayerEntity, LongList> removals = new Reference2ObjectOpenHashMap<>();
+        for (long controllerPos : removedRenderMasks) {
+            ChunkPos chunkPos = new ChunkPos(BlockPos.getX(controllerPos) >> 4, BlockPos.getZ(controllerPos) >> 4);
+            world.getChunkSource().chunkMap.getPlayers(chunkPos, false).forEach(player -> {
+                LongList list = removals.get(player);
+                if (list == null) {
+                    removals.put(player, list = new LongArrayList());
+                }
+                list.add(controllerPos);
+            });
+        }
+        removedRenderMasks.clear();
+        removals.forEach((player, list) -> MultiblockedNetworking.sendToPlayer(new SPacketRemoveDisabledRendering(list.toLongArray()), player));
+    }
+
+    // ********************************* update loop ********************************* //
+    private final List<ComponentTileEntity<?>> updating = new ArrayList<>();
+    private final List<ComponentTileEntity<?>> deferred = new ArrayList<>();
+    private final Object2LongOpenHashMap<ResourceLocation> tickCosts = new Object2LongOpenHashMap<>();
+    private final Object2LongOpenHashMap<ResourceLocation> updateCosts = new Object2LongOpenHashMap<>();
+    private int deferredCursor;
+
+    /**
+     * Update all loaded components once, server thread only. Called per tick.
+     * <br>
+     * All components are updated every tick. The deferrable parts of updates (see {@link ComponentTileEntity#updateDeferred()}) are done in round-robin
+     * until the tick budget runs out (at least one per tick), the rest continue from there next tick.
+     */
+    public void updateLoadings(IProfiler profiler) {
+        long budget = MbdConfig.UPDATE_BUDGET.get() * 1_000_000L;
+        long start = System.nanoTime();
+        updating.addAll(loading.values());
+        for (ComponentTileEntity<?> component : updating) {
+            if (component.isRemoved()) {
+                if (loading.get(component.getBlockPos()) == component) {
+                    removeLoading(component.getBlockPos());
+                }
+            } else if (budget > 0 && component.canDeferUpdate()) {
+                updateComponent(component, profiler, true);
+                deferred.add(component);
+            } else {
+                updateComponent(component, profiler, false);
+            }
+        }
+        if (!deferred.isEmpty()) {
+            int size = deferred.size();
+            int first = deferredCursor % size, count = 0;
+            while (count < size && (count == 0 || System.nanoTime() - start < budget)) {
+                updateDeferred(deferred.get((first + count++) % size), profiler);
+            }
+            deferredCursor = (first + count) % size;
+        }
+        updating.clear();
+        deferred.clear();
+        // moving average of costs per tick, 1/16 weight of the last tick
+        ObjectIterator<Object2LongMap.Entry<ResourceLocation>> iterator = Object2LongMaps.fastIterator(updateCosts);
+        while (iterator.hasNext()) {
+            Object2LongMap.Entry<ResourceLocation> entry = iterator.next();
+            long cost = entry.getLongValue() - (entry.getLongValue() >> 4) + (tickCosts.removeLong(entry.getKey()) >> 4);
+            if (cost <= 0) {
+                iterator.remove();
+            } else {
+                entry.setValue(cost);
+            }
+        }
+        for (Object2LongMap.Entry<ResourceLocation> entry : Object2LongMaps.fastIterable(tickCosts)) {
+            updateCosts.put(entry.getKey(), entry.getLongValue() >> 4);
+        }
+        tickCosts.clear();
+    }
+
+    private void updateComponent(ComponentTileEntity<?> component, IProfiler profiler, boolean deferred) {
+        ResourceLocation location = component.getLocation();
+        profiler.push(location::toString);
+        long start = System.nanoTime();
+        component.update(deferred);
+        tickCosts.addTo(location, System.nanoTime() - start);
+        profiler.pop();
+    }
+
+    private void updateDeferred(ComponentTileEntity<?> component, IProfiler profiler) {
+        if (component.isRemoved()) return;
+        ResourceLocation location = component.getLocation();
+        profiler.push(location::toString);
+        long start = System.nanoTime();
+        component.updateDeferred();
+        tickCosts.addTo(location, System.nanoTime() - start);
+        profiler.pop();
+    }
+
+    /**
+     * Average nanoseconds per tick spent on updating components of the definition in this world.
+     */
+    public long getUpdateCost(ResourceLocation definition) {
+        return updateCosts.getLong(definition);
+    }
+
     // ********************************* thread for searching ********************************* //
     private final CopyOnWriteArrayList<IAsyncThreadUpdate> asyncComponents = new CopyOnWriteArrayList<>();
     private ScheduledExecutorService executorService;
+    private ExecutorService workerService;
     private final static ThreadFactory THREAD_FACTORY = new ThreadFactoryBuilder()
             .setNameFormat("Multiblocked Async Thread-%d")
             .setDaemon(true)
             .build();
     private static final ThreadLocal<Boolean> IN_SERVICE = ThreadLocal.withInitial(()->false);
-    private long periodID = Long.MIN_VALUE;
+    private volatile long periodID = Long.MIN_VALUE;
+    private volatile boolean shardsDirty = true;
+    private List<Callable<Void>> shards = Collections.emptyList();
 
     public void createExecutorService() {
+        shardsDirty = true;
         if (executorService != null && !executorService.isShutdown()) return;
+        int threads = MbdConfig.getAsyncThreads();
         executorService = Executors.newSingleThreadScheduledExecutor(THREAD_FACTORY);
+        workerService = threads > 1 ? Executors.newFixedThreadPool(threads, THREAD_FACTORY) : null;
         executorService.scheduleAtFixedRate(this::searchingTask, 0, 250, TimeUnit.MILLISECONDS);
     }
 
     private void searchingTask() {
+        try {
+            if (shardsDirty) {
+                shardsDirty = false;
+                shards = partitionShards(workerService == null ? 1 : MbdConfig.getAsyncThreads());
+            }
+            if (workerService == null || shards.size() <= 1) {
+                for (Callable<Void> shard : shards) {
+                    shard.call();
+                }
+            } else {
+                // wait all shards, so that a period is finished before the next one.
+                workerService.invokeAll(shards);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            Multiblocked.LOGGER.error("asyncThreadLogic error: {}", e.getMessage());
+        }
+        periodID++;
+    }
+
+    /**
+     * Partition async components by chunk region (8x8 chunks), components of a region are always updated by the same thread.
+     * Regions are assigned to the least loaded shard, the larger first.
+     */
+    private List<Callable<Void>> partitionShards(int count) {
+        Long2ObjectOpenHashMap<List<IAsyncThreadUpdate>> regions = new Long2ObjectOpenHashMap<>();
+        for (IAsyncThreadUpdate asyncComponent : asyncComponents) {
+            long region = 0;
+            if (asyncComponent instanceof TileEntity) {
+                BlockPos pos = ((TileEntity) asyncComponent).getBlockPos();
+                region = ChunkPos.asLong(pos.getX() >> 7, pos.getZ() >> 7);
+            }
+            regions.computeIfAbsent(region, r -> new ArrayList<>()).add(asyncComponent);
+        }
+        List<List<IAsyncThreadUpdate>> sorted = new ArrayList<>(regions.values());
+        sorted.sort((a, b) -> b.size() - a.size());
+        List<List<IAsyncThreadUpdate>> buckets = new ArrayList<>();
+        for (int i = 0; i < Math.min(count, sorted.size()); i++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (List<IAsyncThreadUpdate> region : sorted) {
+            List<IAsyncThreadUpdate> bucket = buckets.get(0);
+            for (List<IAsyncThreadUpdate> candidate : buckets) {
+                if (candidate.size() < bucket.size()) {
+                    bucket = candidate;
+                }
+            }
+            bucket.addAll(region);
+        }
+        List<Callable<Void>> result = new ArrayList<>(buckets.size());
+        for (List<IAsyncThreadUpdate> bucket : buckets) {
+            result.add(() -> {
+                updateShard(bucket);
+                return null;
+            });
+        }
+        return result;
+    }
+
+    private void updateShard(List<IAsyncThreadUpdate> shard) {
         try {
             IN_SERVICE.set(true);
-            for (IAsyncThreadUpdate asyncComponent : asyncComponents) {
+            for (IAsyncThreadUpdate asyncComponent : shard) {
                 asyncComponent.asyncThreadLogic(periodID);
             }
-            IN_SERVICE.set(false);
         } catch (Throwable e) {
             Multiblocked.LOGGER.error("asyncThreadLogic error: {}", e.getMessage());
+        } finally {
+            IN_SERVICE.set(false);
         }
-        periodID++;
     }
 
     public static boolean isThreadService() {
@@ -247,7 +548,11 @@ public class MultiblockWorldSavedData extends WorldSavedData {
         if (executorService != null) {
             executorService.shutdownNow();
         }
+        if (workerService != null) {
+            workerService.shutdownNow();
+        }
         executorService = null;
+        workerService = null;
     }
 
     public long getPeriodID() {
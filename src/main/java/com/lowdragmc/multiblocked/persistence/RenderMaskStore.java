@@ -0,0 +1,122 @@
+package com.lowdragmc.multiblocked.persistence;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import net.minecraft.util.Direction;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.SectionPos;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Positions whose models are disabled by the render mask of formed structures, bucketed by chunk section.
+ * Positions are reference counted, since structures may share blocks, so removing a structure only touches its own positions.
+ * <br>
+ * Lookups don't allocate and don't lock, they are safe from chunk builder threads.
+ * Changes are rare, so they are applied to copies of the touched sections and published at once.
+ */
+public class RenderMaskStore {
+    private final Map<BlockPos, long[]> structures = new Object2ObjectOpenHashMap<>();
+    private final Long2IntOpenHashMap counts = new Long2IntOpenHashMap();
+    private volatile Long2ObjectOpenHashMap<LongOpenHashSet> sections = new Long2ObjectOpenHashMap<>(); // key: SectionPos#asLong
+
+    public boolean isEmpty() {
+        return sections.isEmpty();
+    }
+
+    public boolean contains(long pos) {
+        LongOpenHashSet section = sections.get(SectionPos.blockToSection(pos));
+        return section != null && section.contains(pos);
+    }
+
+    public boolean contains(BlockPos pos) {
+        return contains(pos.asLong());
+    }
+
+    public boolean contains(BlockPos pos, Direction facing) {
+        return contains(BlockPos.offset(pos.asLong(), facing));
+    }
+
+    /**
+     * Set the disabled positions of a structure, replacing the previous ones.
+     */
+    public synchronized void add(BlockPos controllerPos, long[] positions) {
+        Long2ObjectOpenHashMap<LongOpenHashSet> next = new Long2ObjectOpenHashMap<>(sections);
+        LongSet copied = new LongOpenHashSet();
+        long[] last = structures.put(controllerPos, positions);
+        if (last != null) {
+            release(last, next, copied);
+        }
+        for (long pos : positions) {
+            if (counts.addTo(pos, 1) == 0) {
+                getSection(next, copied, SectionPos.blockToSection(pos)).add(pos);
+            }
+        }
+        sections = next;
+    }
+
+    /**
+     * @return positions of the removed structure, or null if it had none.
+     */
+    public synchronized long[] remove(BlockPos controllerPos) {
+        long[] positions = structures.remove(controllerPos);
+        if (positions != null) {
+            Long2ObjectOpenHashMap<LongOpenHashSet> next = new Long2ObjectOpenHashMap<>(sections);
+            release(positions, next, new LongOpenHashSet());
+            sections = next;
+        }
+        return positions;
+    }
+
+    /**
+     * Controllers of the structures in the given chunk.
+     */
+    public synchronized List<BlockPos> getControllers(ChunkPos chunkPos) {
+        List<BlockPos> controllers = new ArrayList<>();
+        for (BlockPos controllerPos : structures.keySet()) {
+            if (controllerPos.getX() >> 4 == chunkPos.x && controllerPos.getZ() >> 4 == chunkPos.z) {
+                controllers.add(controllerPos);
+            }
+        }
+        return controllers;
+    }
+
+    public synchronized void clear() {
+        structures.clear();
+        counts.clear();
+        sections = new Long2ObjectOpenHashMap<>();
+    }
+
+    private void release(long[] positions, Long2ObjectOpenHashMap<LongOpenHashSet> next, LongSet copied) {
+        for (long pos : positions) {
+            if (counts.addTo(pos, -1) <= 1) {
+                counts.remove(pos);
+                long sectionPos = SectionPos.blockToSection(pos);
+                LongOpenHashSet section = getSection(next, copied, sectionPos);
+                section.remove(pos);
+                if (section.isEmpty()) {
+                    next.remove(sectionPos);
+                    copied.remove(sectionPos);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sections published to readers are never modified, they are copied once per change.
+     */
+    private static LongOpenHashSet getSection(Long2ObjectOpenHashMap<LongOpenHashSet> next, LongSet copied, long sectionPos) {
+        LongOpenHashSet section = next.get(sectionPos);
+        if (copied.add(sectionPos)) {
+            section = section == null ? new LongOpenHashSet() : new LongOpenHashSet(section);
+            next.put(sectionPos, section);
+        }
+        return section;
+    }
+}
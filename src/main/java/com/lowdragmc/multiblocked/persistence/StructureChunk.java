@@ -0,0 +1,36 @@
+package com.lowdragmc.multiblocked.persistence;
+
+import com.lowdragmc.multiblocked.api.pattern.MultiblockState;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+
+import java.util.Set;
+
+/**
+ * Structures which have blocks in a chunk, and the positions of these blocks.
+ * Positions are reference counted, since a part can be shared by several structures.
+ */
+public class StructureChunk {
+    public final Set<MultiblockState> structures = new ReferenceOpenHashSet<>();
+    private final Long2IntOpenHashMap members = new Long2IntOpenHashMap();
+
+    public void add(MultiblockState state, long pos) {
+        structures.add(state);
+        members.addTo(pos, 1);
+    }
+
+    public void remove(MultiblockState state, long pos) {
+        structures.remove(state);
+        if (members.addTo(pos, -1) <= 1) {
+            members.remove(pos);
+        }
+    }
+
+    public boolean isMember(long pos) {
+        return members.containsKey(pos);
+    }
+
+    public boolean isEmpty() {
+        return structures.isEmpty();
+    }
+}